@@ -0,0 +1,102 @@
+package vladyslav.stasyshyn.couple_movie.config;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * In-memory cache holding at most {@code maxSize} entries, least recently used first out,
+ * each for at most the TTL. Same eviction scheme as {@link PrincipalCache}, behind Spring's cache abstraction.
+ */
+public class BoundedTtlCache extends AbstractValueAdaptingCache {
+
+    private record Entry(Object value, long loadedAt) {
+    }
+
+    private final String name;
+    private final long ttlNanos;
+    private final Map<Object, Entry> store;
+
+    public BoundedTtlCache(String name, long ttlSeconds, int maxSize) {
+        super(false);
+        this.name = name;
+        this.ttlNanos = Math.max(0, ttlSeconds) * 1_000_000_000L;
+        int bound = Math.max(0, maxSize);
+        this.store = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > bound;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        long now = System.nanoTime();
+        synchronized (store) {
+            Entry entry = store.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.loadedAt() >= ttlNanos) {
+                store.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        Entry entry = new Entry(toStoreValue(value), System.nanoTime());
+        synchronized (store) {
+            store.put(key, entry);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        synchronized (store) {
+            store.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (store) {
+            store.clear();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package vladyslav.stasyshyn.couple_movie.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class CacheManagerConfiguration {
+
+    static final List<String> MEMBERSHIP_CACHES = List.of("favoriteMembership", "coupleMembership");
+
+    /**
+     * The membership snapshots grow with the user base, so they are bounded and expire. Their
+     * evictions wait for the writing transaction to commit, otherwise a concurrent read could
+     * re-cache the pre-commit rows. Every other cache stays an unbounded map.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.membership.ttl-seconds:300}") long ttlSeconds,
+                                     @Value("${app.cache.membership.max-size:10000}") int maxSize) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager() {
+            @Override
+            protected Cache getMissingCache(String name) {
+                return new ConcurrentMapCache(name);
+            }
+        };
+        cacheManager.setCaches(MEMBERSHIP_CACHES.stream()
+                .<Cache>map(name -> new TransactionAwareCacheDecorator(new BoundedTtlCache(name, ttlSeconds, maxSize)))
+                .toList());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,160 @@
+package vladyslav.stasyshyn.couple_movie.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves shared lists from the old {@code "min_id:max_id"} string key to the numeric {@code couples} table.
+ * Startup only relaxes the old key column once the schema update has added the new ones; the rows are
+ * linked online by a scheduled backfill, so a large table does not hold up startup. Every step is
+ * idempotent, so it is a no-op on an already migrated database.
+ * During a rolling deploy, instances still on the old code keep linking users and adding rows
+ * without a couple ID, so the backfill is repeated until none are left. Only then
+ * are the old key's unique constraint and indexes dropped.
+ * The {@code couple_key} column is left in place (unmapped) so a rollback keeps working.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CoupleMigration {
+
+    /**
+     * Shared-list rows still keyed by the old string only.
+     */
+    private static final String UNLINKED_ROWS =
+            "couple_movies o WHERE o.couple_id IS NULL AND o.couple_key IS NOT NULL";
+
+    /**
+     * Old-key rows for a movie the couple also has under its couple ID (added by both code versions
+     * during a deploy) are folded into the linked row and deleted: empty rating slots are filled,
+     * a default WATCHLIST status gives way to the old row's and the earlier creation time is kept.
+     */
+    private static final String MERGE_DUPLICATES = "WITH legacy AS (" +
+            "DELETE FROM couple_movies o USING couples c, couple_movies d " +
+            "WHERE o.couple_id IS NULL AND o.couple_key IS NOT NULL " +
+            "AND c.user1_id = split_part(o.couple_key, ':', 1)::bigint " +
+            "AND c.user2_id = split_part(o.couple_key, ':', 2)::bigint " +
+            "AND d.couple_id = c.id AND d.imdb_id = o.imdb_id " +
+            "RETURNING d.id AS linked_id, o.user1_rating, o.user2_rating, o.watch_status, o.added_by_user_id, " +
+            "o.user_you_added, o.partner_added, o.created_at) " +
+            "UPDATE couple_movies d SET " +
+            "user1_rating = COALESCE(d.user1_rating, l.user1_rating), " +
+            "user2_rating = COALESCE(d.user2_rating, l.user2_rating), " +
+            "watch_status = COALESCE(NULLIF(d.watch_status, 'WATCHLIST'), l.watch_status, d.watch_status), " +
+            "added_by_user_id = COALESCE(d.added_by_user_id, l.added_by_user_id), " +
+            "user_you_added = d.user_you_added OR l.user_you_added, " +
+            "partner_added = d.partner_added OR l.partner_added, " +
+            "created_at = LEAST(d.created_at, l.created_at) " +
+            "FROM legacy l WHERE d.id = l.linked_id";
+
+    // Injected so the migration runs after Hibernate has updated the schema
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.couple-migration.batch-size:5000}")
+    private int batchSize;
+
+    private volatile boolean backfillPending;
+
+    @PostConstruct
+    void migrate() {
+        if (!columnExists("couple_movies", "couple_key")) {
+            return;
+        }
+
+        // New rows no longer write the old key
+        jdbcTemplate.execute("ALTER TABLE couple_movies ALTER COLUMN couple_key DROP NOT NULL");
+
+        backfillPending = true;
+    }
+
+    /**
+     * Links the old-key rows, including those written by old instances since the last run;
+     * stops once a run leaves nothing behind.
+     */
+    @Scheduled(fixedDelayString = "${app.couple-migration.backfill-interval-ms:60000}",
+            initialDelayString = "${app.couple-migration.backfill-initial-delay-ms:5000}")
+    void backfillLegacyWrites() {
+        if (!backfillPending) {
+            return;
+        }
+        try {
+            backfill();
+        } catch (DataAccessException e) {
+            log.warn("Couple backfill failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    private void backfill() {
+        int couples = jdbcTemplate.update("INSERT INTO couples (user1_id, user2_id, created_at) " +
+                "SELECT DISTINCT split_part(couple_key, ':', 1)::bigint, split_part(couple_key, ':', 2)::bigint, now() " +
+                "FROM couple_movies WHERE couple_key IS NOT NULL AND couple_id IS NULL " +
+                "ON CONFLICT (user1_id, user2_id) DO NOTHING");
+        couples += jdbcTemplate.update("INSERT INTO couples (user1_id, user2_id, created_at) " +
+                "SELECT DISTINCT LEAST(id, partner_id), GREATEST(id, partner_id), now() " +
+                "FROM users WHERE partner_id IS NOT NULL AND couple_id IS NULL " +
+                "ON CONFLICT (user1_id, user2_id) DO NOTHING");
+
+        int users = jdbcTemplate.update("UPDATE users u SET couple_id = c.id FROM couples c " +
+                "WHERE u.partner_id IS NOT NULL AND u.couple_id IS NULL " +
+                "AND c.user1_id = LEAST(u.id, u.partner_id) AND c.user2_id = GREATEST(u.id, u.partner_id)");
+
+        // Few rows: only movies both code versions added during a deploy
+        int merged = jdbcTemplate.update(MERGE_DUPLICATES);
+
+        // Batched, so a large table is not locked by one long UPDATE. A duplicate added since the merge
+        // is skipped here and merged on the next run.
+        long movies = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update("UPDATE couple_movies cm SET couple_id = c.id FROM couples c " +
+                    "WHERE cm.id IN (SELECT o.id FROM " + UNLINKED_ROWS + " LIMIT ?) " +
+                    "AND c.user1_id = split_part(cm.couple_key, ':', 1)::bigint " +
+                    "AND c.user2_id = split_part(cm.couple_key, ':', 2)::bigint " +
+                    "AND NOT EXISTS (SELECT 1 FROM couple_movies d " +
+                    "WHERE d.couple_id = c.id AND d.imdb_id = cm.imdb_id)", batchSize);
+            movies += updated;
+        } while (updated > 0);
+
+        if (couples > 0 || users > 0 || merged > 0 || movies > 0) {
+            log.info("Couple migration: {} couples created, {} users and {} shared-list rows linked, " +
+                    "{} duplicates merged.", couples, users, movies, merged);
+        }
+
+        Integer remaining = jdbcTemplate.queryForObject("SELECT " +
+                "(SELECT COUNT(*) FROM users WHERE partner_id IS NOT NULL AND couple_id IS NULL) + " +
+                "(SELECT COUNT(*) FROM " + UNLINKED_ROWS + ")",
+                Integer.class);
+        if (remaining != null && remaining == 0) {
+            dropOldKeyConstraints();
+            backfillPending = false;
+        }
+    }
+
+    private void dropOldKeyConstraints() {
+        // The old key is no longer written, so its constraint and indexes only slow down inserts
+        List<String> oldConstraints = jdbcTemplate.queryForList("SELECT conname FROM pg_constraint " +
+                "WHERE conrelid = 'couple_movies'::regclass AND contype = 'u' " +
+                "AND pg_get_constraintdef(oid) = 'UNIQUE (couple_key, imdb_id)'", String.class);
+        for (String constraint : oldConstraints) {
+            jdbcTemplate.execute("ALTER TABLE couple_movies DROP CONSTRAINT \"" + constraint + "\"");
+        }
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_couple_movies_stats");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_couple_movies_keyset");
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_name = ? AND column_name = ?", Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
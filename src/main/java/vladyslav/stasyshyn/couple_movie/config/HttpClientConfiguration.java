@@ -0,0 +1,84 @@
+package vladyslav.stasyshyn.couple_movie.config;
+
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Iterator;
+
+/**
+ * One pooled Apache HttpClient shared by all outbound REST clients (OMDb, TMDB), so bursts reuse
+ * kept-alive TLS connections instead of opening a new one per call. Per-dependency timeouts and
+ * per-host connection limits are applied by {@code DependencyGuardRegistry#requestFactory}.
+ */
+@Configuration
+public class HttpClientConfiguration {
+
+    @Bean
+    public PoolingHttpClientConnectionManager httpConnectionManager(
+            @Value("${app.http.pool.max-total:100}") int maxTotal,
+            @Value("${app.http.pool.max-per-route:20}") int maxPerRoute,
+            @Value("${app.http.pool.connection-ttl-ms:300000}") long connectionTtlMs,
+            @Value("${app.http.pool.validate-after-inactivity-ms:10000}") long validateAfterInactivityMs) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                // Most recently used first, so idle connections beyond the working set expire
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoKeepAlive(true)
+                        .setTcpNoDelay(true)
+                        .build())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.ofMilliseconds(connectionTtlMs))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public CloseableHttpClient pooledHttpClient(PoolingHttpClientConnectionManager httpConnectionManager,
+                                                @Value("${app.http.pool.keep-alive-ms:30000}") long keepAliveMs,
+                                                @Value("${app.http.pool.idle-eviction-ms:60000}") long idleEvictionMs) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAliveMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+                .build();
+    }
+
+    /**
+     * The server's {@code Keep-Alive: timeout=N} if it sends one, capped at the configured keep-alive.
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMs) {
+        return (response, context) -> {
+            Iterator<HeaderElement> elements = MessageSupport.iterate(response, "Keep-Alive");
+            while (elements.hasNext()) {
+                HeaderElement element = elements.next();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        long serverMs = Long.parseLong(element.getValue()) * 1000;
+                        return TimeValue.ofMilliseconds(Math.min(serverMs, keepAliveMs));
+                    } catch (NumberFormatException ignored) {
+                        // fall through to the configured keep-alive
+                    }
+                }
+            }
+            return TimeValue.ofMilliseconds(keepAliveMs);
+        };
+    }
+}
@@ -5,6 +5,8 @@ import com.meilisearch.sdk.Config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuard;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuardRegistry;
 
 @Configuration
 public class MeilisearchConfig {
@@ -19,4 +21,17 @@ public class MeilisearchConfig {
     public Client meilisearchClient() {
         return new Client(new Config(url, apiKey));
     }
+
+    /**
+     * Guards Meilisearch calls; while its breaker is open, searches are answered by the local fallback index.
+     */
+    @Bean
+    public DependencyGuard meilisearchGuard(DependencyGuardRegistry dependencyGuardRegistry,
+                                            @Value("${app.meilisearch.enabled:true}") boolean enabled) {
+        DependencyGuard guard = dependencyGuardRegistry.guard("meilisearch");
+        if (!enabled) {
+            guard.breaker().forceOpen();
+        }
+        return guard;
+    }
 }
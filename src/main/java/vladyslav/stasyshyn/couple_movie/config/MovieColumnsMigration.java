@@ -0,0 +1,97 @@
+package vladyslav.stasyshyn.couple_movie.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import vladyslav.stasyshyn.couple_movie.model.Genre;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Backfills the typed {@code imdb_votes_num}, {@code start_year} and {@code end_year} columns of movies
+ * and the {@code genre_mask} of movies and favorites saved before they existed, and the
+ * {@code enrichment_state} of movies (ENRICHED if they have a plot). New rows get them from their
+ * entity callbacks or save paths; rows whose strings cannot be parsed keep nulls and are not matched
+ * again, so this is a no-op once done.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MovieColumnsMigration {
+
+    private static final String NEEDS_BACKFILL =
+            "(imdb_votes_num IS NULL AND imdb_votes ~ '^[0-9][0-9,]*$') OR (start_year IS NULL AND year_val ~ '^[0-9]{4}')";
+
+    // Injected so the backfill runs after Hibernate has added the columns
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.movie-migration.batch-size:5000}")
+    private int batchSize;
+
+    @PostConstruct
+    void backfill() {
+        long total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update("UPDATE movies SET " +
+                    "imdb_votes_num = CASE WHEN imdb_votes ~ '^[0-9][0-9,]*$' THEN replace(imdb_votes, ',', '')::bigint END, " +
+                    "start_year = substring(year_val from '^([0-9]{4})')::integer, " +
+                    "end_year = CASE WHEN year_val ~ '^[0-9]{4}$' THEN substring(year_val from '^([0-9]{4})')::integer " +
+                    "ELSE substring(year_val from '^[0-9]{4}[^0-9]+([0-9]{4})$')::integer END " +
+                    "WHERE imdb_id IN (SELECT imdb_id FROM movies WHERE " + NEEDS_BACKFILL + " LIMIT ?)", batchSize);
+            total += updated;
+        } while (updated > 0);
+
+        if (total > 0) {
+            log.info("Backfilled typed votes/year columns of {} movies.", total);
+        }
+
+        backfillGenreMasks("movies", "imdb_id");
+        backfillGenreMasks("user_favorites", "id");
+        backfillEnrichmentState();
+    }
+
+    private void backfillEnrichmentState() {
+        long total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update("UPDATE movies SET enrichment_state = " +
+                    "CASE WHEN plot IS NOT NULL THEN 'ENRICHED' ELSE 'PENDING' END " +
+                    "WHERE imdb_id IN (SELECT imdb_id FROM movies WHERE enrichment_state IS NULL LIMIT ?)", batchSize);
+            total += updated;
+        } while (updated > 0);
+
+        if (total > 0) {
+            log.info("Backfilled the enrichment state of {} movies.", total);
+        }
+    }
+
+    private void backfillGenreMasks(String table, String idColumn) {
+        // The genre dictionary as an inline (label, bit) table, matched case-insensitively like Genre.fromLabel
+        String dictionary = Arrays.stream(Genre.values())
+                .map(genre -> "('" + genre.label().toLowerCase(Locale.ROOT) + "', " + genre.bit() + "::bigint)")
+                .collect(Collectors.joining(", "));
+
+        long total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update("UPDATE " + table + " t SET genre_mask = COALESCE((" +
+                    "SELECT bit_or(d.bit) FROM unnest(string_to_array(t.genre, ',')) AS g(name) " +
+                    "JOIN (VALUES " + dictionary + ") AS d(label, bit) ON d.label = lower(trim(g.name))), 0) " +
+                    "WHERE t." + idColumn + " IN (SELECT " + idColumn + " FROM " + table +
+                    " WHERE genre_mask IS NULL LIMIT ?)", batchSize);
+            total += updated;
+        } while (updated > 0);
+
+        if (total > 0) {
+            log.info("Backfilled genre masks of {} rows in {}.", total, table);
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Value("${app.frontend.url}")
     private String frontendUrl;
@@ -51,6 +52,7 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
             if (user.getGoogleId() == null) {
                 user.setGoogleId(googleId);
                 userRepository.save(user);
+                principalCache.evict(user.getEmail());
             }
         } else {
             user = User.builder()
@@ -0,0 +1,101 @@
+package vladyslav.stasyshyn.couple_movie.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vladyslav.stasyshyn.couple_movie.entity.User;
+import vladyslav.stasyshyn.couple_movie.model.Role;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Short-lived, bounded cache of authenticated users keyed by email, so the JWT filter does not
+ * query the users table on every request. Only the identity, the role and the couple link are
+ * kept, and the principal built from them is a detached stub: code that shows the profile or
+ * writes the user loads the entity by ID first, so a stale principal can never be saved over
+ * newer changes. Writers that change partner or role call {@link #evict}; the TTL bounds
+ * staleness for changes made by other instances.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<String, CachedPrincipal> cache;
+
+    public PrincipalCache(UserDetailsService userDetailsService,
+                          @Value("${app.jwt.principal-cache.ttl-seconds:30}") long ttlSeconds,
+                          @Value("${app.jwt.principal-cache.max-size:10000}") int maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.ttlNanos = Math.max(0, ttlSeconds) * 1_000_000_000L;
+        this.maxSize = Math.max(0, maxSize);
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > PrincipalCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the principal for this email, loading the user through the {@link UserDetailsService} on a miss.
+     */
+    public User load(String email) {
+        long now = System.nanoTime();
+        CachedPrincipal cached;
+        synchronized (cache) {
+            cached = cache.get(email);
+        }
+        if (cached == null || now - cached.loadedAt() >= ttlNanos) {
+            User user = (User) userDetailsService.loadUserByUsername(email);
+            cached = new CachedPrincipal(user.getId(), user.getEmail(), user.getRole(),
+                    user.getPartnerId(), user.getCoupleId(), now);
+            if (maxSize > 0 && ttlNanos > 0) {
+                synchronized (cache) {
+                    cache.put(email, cached);
+                }
+            }
+        }
+        return cached.toPrincipal();
+    }
+
+    /**
+     * Drops the cached user now and again after the surrounding transaction commits,
+     * so a request racing the update cannot re-cache the old row.
+     */
+    public void evict(String email) {
+        if (email == null) return;
+        remove(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(email);
+                }
+            });
+        }
+    }
+
+    private void remove(String email) {
+        synchronized (cache) {
+            cache.remove(email);
+        }
+    }
+
+    private record CachedPrincipal(Long id, String email, Role role, Long partnerId, Long coupleId, long loadedAt) {
+
+        User toPrincipal() {
+            return User.builder()
+                    .id(id)
+                    .email(email)
+                    .role(role)
+                    .partnerId(partnerId)
+                    .coupleId(coupleId)
+                    .build();
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import vladyslav.stasyshyn.couple_movie.model.Role;
 
 @Configuration
 @EnableWebSecurity
@@ -37,6 +38,9 @@ public class SecurityConfiguration {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/admin/ai/rebuild-vector-index", "/api/admin/ai/benchmark-vector-index",
+                                "/api/admin/dependencies", "/api/admin/dependencies/**")
+                        .hasAuthority(Role.ADMIN.name())
                         .requestMatchers("/api/v1/auth/**", "/error", "/api/v1/movies/**", "/api/v1/emotions/**", "/api/admin/ai/**")
                         .permitAll()
                         .anyRequest().authenticated())
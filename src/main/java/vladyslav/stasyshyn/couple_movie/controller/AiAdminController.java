@@ -3,12 +3,21 @@ package vladyslav.stasyshyn.couple_movie.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import vladyslav.stasyshyn.couple_movie.dto.EmbeddingStatsResponse;
+import vladyslav.stasyshyn.couple_movie.dto.VectorBenchmarkResponse;
 import vladyslav.stasyshyn.couple_movie.service.AiVectorizationService;
+import vladyslav.stasyshyn.couple_movie.service.EmbeddingService;
+import vladyslav.stasyshyn.couple_movie.service.VectorIndexBenchmarkService;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin/ai")
@@ -18,6 +27,8 @@ import vladyslav.stasyshyn.couple_movie.service.AiVectorizationService;
 public class AiAdminController {
 
     private final AiVectorizationService aiVectorizationService;
+    private final EmbeddingService embeddingService;
+    private final VectorIndexBenchmarkService vectorIndexBenchmarkService;
 
     /**
      * Endpoint to manually trigger the backfilling of the Vector DB.
@@ -41,4 +52,36 @@ public class AiAdminController {
 
         return ResponseEntity.ok("Vectorization started in the background. Check server logs for progress!");
     }
+
+    /**
+     * Latency, batching and queue-depth counters of the local embedding worker pool.
+     */
+    @GetMapping("/embedding-stats")
+    public ResponseEntity<EmbeddingStatsResponse> getEmbeddingStats() {
+        return ResponseEntity.ok(embeddingService.getStats());
+    }
+
+    /**
+     * Rebuilds the HNSW index with the currently configured m / ef_construction.
+     * Answers 409 while a rebuild is already running.
+     */
+    @PostMapping("/rebuild-vector-index")
+    public ResponseEntity<String> rebuildVectorIndex() {
+        if (!aiVectorizationService.rebuildVectorIndexAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A vector index rebuild is already running.");
+        }
+        return ResponseEntity.ok("Vector index rebuild started in the background. Check server logs for progress!");
+    }
+
+    /**
+     * Measures recall@k and latency of the HNSW index for several ef_search values against exact search.
+     * The parameters are capped, since every query also runs an exact sequential scan.
+     */
+    @GetMapping("/benchmark-vector-index")
+    public ResponseEntity<VectorBenchmarkResponse> benchmarkVectorIndex(
+            @RequestParam(value = "queries", defaultValue = "50") int queries,
+            @RequestParam(value = "k", defaultValue = "10") int k,
+            @RequestParam(value = "efSearch", defaultValue = "40,100,200,400") List<Integer> efSearch) {
+        return ResponseEntity.ok(vectorIndexBenchmarkService.run(queries, k, efSearch));
+    }
 }
@@ -61,11 +61,11 @@ public class AuthenticationController {
      */
     @GetMapping("/me")
     public ResponseEntity<UserProfileResponse> getCurrentUser(@AuthenticationPrincipal User user) {
-        log.info("Processing /me request. AuthenticationPrincipal is: {}", user != null ? user.getEmail() : "null");
+        log.debug("Processing /me request. AuthenticationPrincipal is: {}", user != null ? user.getEmail() : "null");
         if (user == null) {
             throw new UnauthorizedException("Not authenticated");
         }
-        return ResponseEntity.ok(UserProfileResponse.fromUser(user));
+        return ResponseEntity.ok(service.getProfile(user));
     }
 
     @PutMapping("/me")
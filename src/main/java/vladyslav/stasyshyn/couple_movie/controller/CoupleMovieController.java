@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import vladyslav.stasyshyn.couple_movie.dto.CoupleMovieResponse;
+import vladyslav.stasyshyn.couple_movie.dto.CursorPageResponse;
 import vladyslav.stasyshyn.couple_movie.dto.GetStatusResponse;
 import vladyslav.stasyshyn.couple_movie.dto.AddMovieResponse;
 import vladyslav.stasyshyn.couple_movie.dto.UpdateMovieStatusResponse;
@@ -30,6 +31,19 @@ public class CoupleMovieController {
         return ResponseEntity.ok(coupleMovieService.getSharedMovies(user));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageResponse<CoupleMovieResponse>> getSharedMoviesPage(@AuthenticationPrincipal User user,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "genre", required = false) String genre,
+            @RequestParam(value = "matchesOnly", defaultValue = "false") boolean matchesOnly) {
+        if (user == null) {
+            throw new UnauthorizedException("Not authenticated");
+        }
+        return ResponseEntity.ok(coupleMovieService.getSharedMoviesPage(user, cursor, limit, status, genre, matchesOnly));
+    }
+
     @GetMapping("/my-ids")
     public ResponseEntity<List<String>> getMyAddedMovieIds(@AuthenticationPrincipal User user) {
         if (user == null) {
@@ -0,0 +1,51 @@
+package vladyslav.stasyshyn.couple_movie.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import vladyslav.stasyshyn.couple_movie.dto.DependencyStatusResponse;
+import vladyslav.stasyshyn.couple_movie.dto.HttpPoolStatsResponse;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuardRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Circuit state and call metrics of the outbound dependencies.
+ */
+@RestController
+@RequestMapping("/api/admin/dependencies")
+@RequiredArgsConstructor
+public class DependencyStatusController {
+
+    private final DependencyGuardRegistry dependencyGuardRegistry;
+    private final PoolingHttpClientConnectionManager httpConnectionManager;
+
+    @GetMapping
+    public ResponseEntity<List<DependencyStatusResponse>> getDependencyStatus() {
+        return ResponseEntity.ok(dependencyGuardRegistry.statuses());
+    }
+
+    /**
+     * Leased, idle and pending connections of the shared HTTP pool, in total and per host.
+     */
+    @GetMapping("/http-pool")
+    public ResponseEntity<List<HttpPoolStatsResponse>> getHttpPoolStats() {
+        List<HttpPoolStatsResponse> stats = new ArrayList<>();
+        stats.add(toResponse("total", httpConnectionManager.getTotalStats()));
+        httpConnectionManager.getRoutes().stream()
+                .sorted(Comparator.comparing(Object::toString))
+                .forEach(route -> stats.add(toResponse(route.getTargetHost().toURI(), httpConnectionManager.getStats(route))));
+        return ResponseEntity.ok(stats);
+    }
+
+    private static HttpPoolStatsResponse toResponse(String route, PoolStats poolStats) {
+        return new HttpPoolStatsResponse(route, poolStats.getLeased(), poolStats.getAvailable(),
+                poolStats.getPending(), poolStats.getMax());
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import vladyslav.stasyshyn.couple_movie.dto.AddFavoriteResponse;
+import vladyslav.stasyshyn.couple_movie.dto.CursorPageResponse;
 import vladyslav.stasyshyn.couple_movie.dto.FavoriteResponse;
 import vladyslav.stasyshyn.couple_movie.dto.UpdateFavoriteRequest;
 import vladyslav.stasyshyn.couple_movie.dto.UpdateFavoriteResponse;
@@ -29,6 +30,18 @@ public class FavoritesController {
         return ResponseEntity.ok(favoritesService.getFavorites(user));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageResponse<FavoriteResponse>> getFavoritesPage(@AuthenticationPrincipal User user,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "genre", required = false) String genre) {
+        if (user == null) {
+            throw new UnauthorizedException("Not authenticated");
+        }
+        return ResponseEntity.ok(favoritesService.getFavoritesPage(user, cursor, limit, status, genre));
+    }
+
     @GetMapping("/ids")
     public ResponseEntity<List<String>> getFavoriteIds(@AuthenticationPrincipal User user) {
         if (user == null) {
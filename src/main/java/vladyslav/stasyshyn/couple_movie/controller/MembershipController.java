@@ -0,0 +1,37 @@
+package vladyslav.stasyshyn.couple_movie.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import vladyslav.stasyshyn.couple_movie.dto.MembershipFlags;
+import vladyslav.stasyshyn.couple_movie.dto.MembershipRequest;
+import vladyslav.stasyshyn.couple_movie.entity.User;
+import vladyslav.stasyshyn.couple_movie.exception.UnauthorizedException;
+import vladyslav.stasyshyn.couple_movie.service.MembershipService;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/membership")
+@RequiredArgsConstructor
+public class MembershipController {
+
+    private final MembershipService membershipService;
+
+    /**
+     * Favorite / couple list / match / watched flags for every requested IMDb ID, in one call.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, MembershipFlags>> getMembership(@AuthenticationPrincipal User user,
+            @Valid @RequestBody MembershipRequest request) {
+        if (user == null) {
+            throw new UnauthorizedException("Not authenticated");
+        }
+        return ResponseEntity.ok(membershipService.getMembership(user, request.imdbIds()));
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import vladyslav.stasyshyn.couple_movie.dto.CursorPageResponse;
 import vladyslav.stasyshyn.couple_movie.dto.SearchPageResponse;
 import vladyslav.stasyshyn.couple_movie.dto.RecommendationResponse;
 import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbSearchResponse;
@@ -19,7 +20,7 @@ import vladyslav.stasyshyn.couple_movie.entity.User;
 import vladyslav.stasyshyn.couple_movie.service.EmotionGenreService;
 import vladyslav.stasyshyn.couple_movie.service.MovieSearchService;
 import vladyslav.stasyshyn.couple_movie.service.OmdbService;
-import vladyslav.stasyshyn.couple_movie.service.TmdbService;
+import vladyslav.stasyshyn.couple_movie.service.TrendingService;
 import vladyslav.stasyshyn.couple_movie.service.AiMovieSearchService;
 import vladyslav.stasyshyn.couple_movie.service.AiChatService;
 import vladyslav.stasyshyn.couple_movie.service.AiRecommendationService;
@@ -39,7 +40,7 @@ public class MovieController {
     private final OmdbService omdbService;
     private final MovieSearchService movieSearchService;
     private final EmotionGenreService emotionGenreService;
-    private final TmdbService tmdbService;
+    private final TrendingService trendingService;
     private final Optional<AiMovieSearchService> aiMovieSearchService;
     private final Optional<AiChatService> aiChatService;
     private final Optional<AiRecommendationService> aiRecommendationService;
@@ -65,7 +66,7 @@ public class MovieController {
      */
     @GetMapping("/trending")
     public ResponseEntity<List<Movie>> getTrending() {
-        return ResponseEntity.ok(tmdbService.getTrending());
+        return ResponseEntity.ok(trendingService.getTrending());
     }
 
     /**
@@ -150,6 +151,17 @@ public class MovieController {
         return ResponseEntity.ok(movieSearchService.searchByGenres(genres, page, size));
     }
 
+    /**
+     * Cursor-paginated genre browse, ordered by popularity; pass the returned cursor to get the next page.
+     */
+    @GetMapping("/by-genres/page")
+    public ResponseEntity<CursorPageResponse<Movie>> getMoviesByGenresPage(
+            @RequestParam("genres") List<String> genres,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(movieSearchService.searchByGenresPage(genres, cursor, limit));
+    }
+
     /**
      * Get movies matching an emotion.
      * "nostalgic" is special-cased: returns movies with rating > 9 and at least 10
@@ -191,6 +203,20 @@ public class MovieController {
                 movieSearchService.filterMoviesAndEmotions(genres, emotions, emotionGenreService, page, size, awarded));
     }
 
+    /**
+     * Cursor-paginated variant of {@code /filter}, usable past Meilisearch's maxTotalHits.
+     */
+    @GetMapping("/filter/page")
+    public ResponseEntity<CursorPageResponse<Movie>> filterMoviesPage(
+            @RequestParam(value = "genres", required = false) List<String> genres,
+            @RequestParam(value = "emotions", required = false) List<String> emotions,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "awarded", defaultValue = "false") boolean awarded) {
+        return ResponseEntity.ok(movieSearchService.filterMoviesAndEmotionsPage(
+                genres, emotions, emotionGenreService, cursor, limit, awarded));
+    }
+
     /**
      * Get detailed information about a specific movie.
      */
@@ -16,4 +16,13 @@ public class MovieDocument {
     private Boolean hasWinAward;
     private Integer yearInt;
     private Long imdbVotesInt;
+    /**
+     * Facet fields: start decade (1990, 2000, ...) and a rating band ("9+", "8-9", ...).
+     */
+    private Integer decade;
+    private String ratingBucket;
+    /**
+     * Numeric part of the IMDb ID, the unique tiebreaker for search-after pagination.
+     */
+    private Long imdbNum;
 }
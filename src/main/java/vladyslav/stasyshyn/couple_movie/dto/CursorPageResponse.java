@@ -0,0 +1,12 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list; {@code nextCursor} is null on the last page.
+ */
+public record CursorPageResponse<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasMore) {
+}
@@ -0,0 +1,20 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+/**
+ * Circuit state and call counters of one outbound dependency since startup.
+ */
+public record DependencyStatusResponse(
+        String name,
+        String circuitState,
+        int activeCalls,
+        int maxConcurrentCalls,
+        long callTimeoutMs,
+        long successes,
+        long failures,
+        long timeouts,
+        long rejectedByCircuit,
+        long rejectedByBulkhead,
+        long fallbacks,
+        double averageLatencyMs,
+        double maxLatencyMs) {
+}
@@ -0,0 +1,19 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+public record EmbeddingStatsResponse(
+        int poolSize,
+        int maxBatchSize,
+        int queueDepth,
+        long requests,
+        long batches,
+        long failures,
+        double averageBatchSize,
+        double averageLatencyMs,
+        double maxLatencyMs,
+        long warmUpMs,
+        int cacheEntries,
+        int cacheCapacity,
+        long cacheHits,
+        long cacheMisses,
+        double cacheHitRate) {
+}
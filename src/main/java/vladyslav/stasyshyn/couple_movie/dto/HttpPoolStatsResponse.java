@@ -0,0 +1,12 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+/**
+ * Connection counts of the shared outbound HTTP pool, in total ({@code route = "total"}) or for one host.
+ */
+public record HttpPoolStatsResponse(
+        String route,
+        int leased,
+        int available,
+        int pending,
+        int max) {
+}
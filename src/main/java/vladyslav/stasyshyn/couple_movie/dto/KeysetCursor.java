@@ -0,0 +1,57 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by {@code (created_at DESC NULLS FIRST, id DESC)}: the last row of the previous page.
+ * Legacy rows without {@code created_at} come first, so a cursor may carry a null timestamp.
+ * Sent to clients as an opaque URL-safe token.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    /**
+     * Sorts before every real row, undated ones included, so the first page uses the same keyset
+     * predicate as the next ones.
+     */
+    public static final KeysetCursor START = new KeysetCursor(null, Long.MAX_VALUE);
+
+    /**
+     * Bound in place of a null timestamp; the query ignores it while {@link #isUndated()} holds.
+     */
+    private static final LocalDateTime UNDATED_PLACEHOLDER = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    public boolean isUndated() {
+        return createdAt == null;
+    }
+
+    /**
+     * Timestamp to bind to the seek predicate; never null, so the native query parameter keeps its type.
+     */
+    public LocalDateTime seekCreatedAt() {
+        return createdAt != null ? createdAt : UNDATED_PLACEHOLDER;
+    }
+
+    public String encode() {
+        String raw = (createdAt != null ? createdAt.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String createdAt = raw.substring(0, separator);
+            return new KeysetCursor(
+                    createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
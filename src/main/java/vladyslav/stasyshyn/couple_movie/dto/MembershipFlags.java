@@ -0,0 +1,20 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+/**
+ * How a movie relates to the current user, for decorating movie cards.
+ *
+ * @param favorite     in the user's own favorites
+ * @param inCoupleList in the couple's shared list (added by either partner)
+ * @param addedByMe    the current user added it to the shared list
+ * @param match        both partners added it
+ * @param watched      marked watched in the favorites or the shared list
+ */
+public record MembershipFlags(
+        boolean favorite,
+        boolean inCoupleList,
+        boolean addedByMe,
+        boolean match,
+        boolean watched) {
+
+    public static final MembershipFlags NONE = new MembershipFlags(false, false, false, false, false);
+}
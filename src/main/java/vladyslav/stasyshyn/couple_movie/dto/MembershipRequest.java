@@ -0,0 +1,12 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record MembershipRequest(
+    @NotNull(message = "imdbIds is required")
+    @Size(max = 500, message = "At most 500 IDs per request")
+    List<String> imdbIds
+) {}
@@ -0,0 +1,34 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Search-after position in a browse ordered by {@code (imdbVotesInt DESC, imdbNum ASC)}:
+ * the sort values of the last movie of the previous page. Sent to clients as an opaque URL-safe token.
+ */
+public record SearchCursor(long votes, long imdbNum) {
+
+    public String encode() {
+        String raw = votes + "|" + imdbNum;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Null for a missing token, i.e. the first page.
+     */
+    public static SearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SearchCursor(
+                    Long.parseLong(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
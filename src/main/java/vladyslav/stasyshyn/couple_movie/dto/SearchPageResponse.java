@@ -1,11 +1,22 @@
 package vladyslav.stasyshyn.couple_movie.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * @param facets counts per value of each facet (genre, decade, hasWinAward, ratingBucket) over
+ *               all matches, for filter endpoints; omitted elsewhere
+ */
 public record SearchPageResponse(
         List<Movie> movies,
         long totalHits,
         int page,
-        int size) {
+        int size,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Map<String, Map<String, Long>> facets) {
+
+    public SearchPageResponse(List<Movie> movies, long totalHits, int page, int size) {
+        this(movies, totalHits, page, size, null);
+    }
 }
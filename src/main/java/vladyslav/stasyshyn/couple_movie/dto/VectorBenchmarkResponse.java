@@ -0,0 +1,17 @@
+package vladyslav.stasyshyn.couple_movie.dto;
+
+import java.util.List;
+
+public record VectorBenchmarkResponse(
+        int queries,
+        int k,
+        double exactAvgLatencyMs,
+        List<EfSearchResult> results) {
+
+    public record EfSearchResult(
+            int efSearch,
+            double recall,
+            double avgLatencyMs,
+            double p95LatencyMs) {
+    }
+}
@@ -0,0 +1,45 @@
+package vladyslav.stasyshyn.couple_movie.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * A pair of users. One row per pair, kept when the couple breaks up, so a re-link
+ * gets the same ID back together with the shared list.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "couples", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_couples_users", columnNames = { "user1_id", "user2_id" })
+})
+public class Couple {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * The lower of the two user IDs.
+     */
+    @Column(name = "user1_id", nullable = false)
+    private Long user1Id;
+
+    /**
+     * The higher of the two user IDs.
+     */
+    @Column(name = "user2_id", nullable = false)
+    private Long user2Id;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
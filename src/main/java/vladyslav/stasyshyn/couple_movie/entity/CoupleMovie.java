@@ -15,7 +15,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "couple_movies", uniqueConstraints = {
-        @UniqueConstraint(columnNames = { "couple_key", "imdb_id" })
+        @UniqueConstraint(name = "uk_couple_movies_couple_imdb", columnNames = { "couple_id", "imdb_id" })
+}, indexes = {
+        // Covers the stats aggregate, so it is answered by an index-only scan
+        @Index(name = "idx_couple_movies_couple_stats", columnList = "couple_id, watch_status, user_you_added, partner_added"),
+        @Index(name = "idx_couple_movies_couple_keyset", columnList = "couple_id, created_at DESC, id DESC")
 })
 public class CoupleMovie {
 
@@ -25,11 +29,10 @@ public class CoupleMovie {
     private Long id;
 
     /**
-     * A normalized key representing the couple. Always "min_id:max_id" for
-     * consistency.
+     * The {@link Couple} this shared-list entry belongs to.
      */
-    @Column(name = "couple_key", nullable = false)
-    private String coupleKey;
+    @Column(name = "couple_id")
+    private Long coupleId;
 
     @Column(name = "imdb_id", nullable = false)
     private String imdbId;
@@ -77,11 +80,4 @@ public class CoupleMovie {
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
-
-    /**
-     * Create a normalized couple key from two user IDs.
-     */
-    public static String buildCoupleKey(Long userId1, Long userId2) {
-        return Math.min(userId1, userId2) + ":" + Math.max(userId1, userId2);
-    }
 }
@@ -1,10 +1,13 @@
 package vladyslav.stasyshyn.couple_movie.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import vladyslav.stasyshyn.couple_movie.model.Genre;
+
 import java.util.List;
 
 @Data
@@ -27,4 +30,12 @@ public class EmotionGenreMap {
     @CollectionTable(name = "emotion_genres", joinColumns = @JoinColumn(name = "emotion_genre_map_id"))
     @Column(name = "genre")
     private List<String> genres;
+
+    /**
+     * {@code genres} as a {@link Genre} bit mask; names outside the dictionary are ignored.
+     */
+    @JsonIgnore
+    public long getGenreMask() {
+        return genres == null ? 0L : Genre.maskOf(genres);
+    }
 }
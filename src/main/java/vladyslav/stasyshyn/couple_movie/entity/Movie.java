@@ -2,13 +2,21 @@ package vladyslav.stasyshyn.couple_movie.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import vladyslav.stasyshyn.couple_movie.model.EnrichmentState;
+import vladyslav.stasyshyn.couple_movie.model.Genre;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "movies")
+@Table(name = "movies", indexes = {
+        @Index(name = "idx_movies_imdb_votes_num", columnList = "imdb_votes_num DESC"),
+        @Index(name = "idx_movies_start_year", columnList = "start_year"),
+        @Index(name = "idx_movies_enrichment_state", columnList = "enrichment_state")
+})
 public class Movie {
 
     @Id
@@ -65,4 +73,75 @@ public class Movie {
 
     @Column(name = "imdb_rating")
     private Double imdbRating;
+
+    /**
+     * {@code imdbVotes} as a number ("1,234,567" -> 1234567), derived on every save.
+     */
+    @Column(name = "imdb_votes_num")
+    private Long imdbVotesNum;
+
+    /**
+     * First year of {@code year} ("2010–2014" -> 2010), derived on every save.
+     */
+    @Column(name = "start_year")
+    private Integer startYear;
+
+    /**
+     * Last year of {@code year}: the start year for a single year, null while a series is still running.
+     */
+    @Column(name = "end_year")
+    private Integer endYear;
+
+    /**
+     * {@code genre} as a {@link Genre} bit mask, derived on every save.
+     */
+    @Column(name = "genre_mask")
+    private Long genreMask;
+
+    /**
+     * PENDING for rows saved from search summaries until the enrichment scheduler fetches their full details.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "enrichment_state", length = 16)
+    private EnrichmentState enrichmentState;
+
+    /**
+     * When an IN_PROGRESS row was claimed; claims older than the lease are handed back to PENDING.
+     */
+    @Column(name = "enrichment_claimed_at")
+    private LocalDateTime enrichmentClaimedAt;
+
+    /**
+     * Fills the typed columns from the OMDb strings, so queries and sorts never parse them.
+     */
+    @PrePersist
+    @PreUpdate
+    public void deriveTypedColumns() {
+        this.imdbVotesNum = parseVotes(imdbVotes);
+        this.genreMask = Genre.maskOf(genre);
+        this.startYear = parseYear(year, 0);
+        if (year != null && year.length() > 4) {
+            this.endYear = year.length() >= 9 ? parseYear(year, year.length() - 4) : null;
+        } else {
+            this.endYear = startYear;
+        }
+    }
+
+    private static Long parseVotes(String votes) {
+        if (votes == null || votes.isEmpty() || votes.equalsIgnoreCase("N/A")) return null;
+        try {
+            return Long.parseLong(votes.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseYear(String year, int from) {
+        if (year == null || year.length() < from + 4) return null;
+        try {
+            return Integer.parseInt(year.substring(from, from + 4));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package vladyslav.stasyshyn.couple_movie.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * The settings last applied to a Meilisearch index, so unchanged settings are not re-sent
+ * (which would make Meilisearch re-index) on every startup.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "search_index_settings")
+public class SearchIndexSettings {
+
+    @Id
+    @Column(name = "index_name")
+    private String indexName;
+
+    /**
+     * SHA-256 of the settings manifest.
+     */
+    @Column(name = "settings_hash", nullable = false)
+    private String settingsHash;
+
+    /**
+     * Creation time Meilisearch reported for the index; a recreated index gets its settings again.
+     */
+    @Column(name = "index_created_at")
+    private String indexCreatedAt;
+
+    @UpdateTimestamp
+    @Column(name = "applied_at")
+    private LocalDateTime appliedAt;
+}
@@ -15,7 +15,7 @@ import java.util.Collection;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
@@ -59,6 +59,12 @@ public class User implements UserDetails {
     @Column(name = "partner_id")
     private Long partnerId;
 
+    /**
+     * The {@link Couple} the user currently belongs to; set together with {@code partnerId}.
+     */
+    @Column(name = "couple_id")
+    private Long coupleId;
+
     @Column(name = "is_verified", nullable = false)
     @Builder.Default
     private boolean isVerified = false;
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import vladyslav.stasyshyn.couple_movie.model.Genre;
 import vladyslav.stasyshyn.couple_movie.model.WatchStatus;
 import java.time.LocalDateTime;
 
@@ -16,6 +17,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "user_favorites", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "user_id", "imdb_id" })
+}, indexes = {
+        @Index(name = "idx_user_favorites_keyset", columnList = "user_id, created_at DESC, id DESC")
 })
 public class UserFavorite {
 
@@ -43,6 +46,12 @@ public class UserFavorite {
     @Column(name = "genre")
     private String genre;
 
+    /**
+     * {@code genre} as a {@link Genre} bit mask, derived on every save.
+     */
+    @Column(name = "genre_mask")
+    private Long genreMask;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "watch_status")
     @Builder.Default
@@ -54,4 +63,10 @@ public class UserFavorite {
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
+
+    @PrePersist
+    @PreUpdate
+    void deriveGenreMask() {
+        this.genreMask = Genre.maskOf(genre);
+    }
 }
@@ -0,0 +1,14 @@
+package vladyslav.stasyshyn.couple_movie.exception;
+
+/**
+ * An outbound dependency (OMDb, TMDB, Meilisearch, Gemini) rejected, timed out or failed a call.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+    public DependencyUnavailableException(String message) {
+        super(message);
+    }
+
+    public DependencyUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,9 @@
+package vladyslav.stasyshyn.couple_movie.model;
+
+/**
+ * Whether a movie row has its full OMDb details. Rows saved from search summaries start as PENDING;
+ * a null state (rows from before the column existed) is treated like PENDING.
+ */
+public enum EnrichmentState {
+    PENDING, IN_PROGRESS, ENRICHED, FAILED
+}
@@ -0,0 +1,147 @@
+package vladyslav.stasyshyn.couple_movie.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The OMDb genre dictionary. Each genre has a fixed small ID, which is its bit in a genre mask:
+ * a movie's genres are stored as one {@code long}, so overlap tests are a single AND.
+ * IDs are persisted inside masks, so existing ones must never be changed or reused.
+ */
+public enum Genre {
+    ACTION(0, "Action"),
+    ADULT(1, "Adult"),
+    ADVENTURE(2, "Adventure"),
+    ANIMATION(3, "Animation"),
+    BIOGRAPHY(4, "Biography"),
+    COMEDY(5, "Comedy"),
+    CRIME(6, "Crime"),
+    DOCUMENTARY(7, "Documentary"),
+    DRAMA(8, "Drama"),
+    FAMILY(9, "Family"),
+    FANTASY(10, "Fantasy"),
+    FILM_NOIR(11, "Film-Noir"),
+    GAME_SHOW(12, "Game-Show"),
+    HISTORY(13, "History"),
+    HORROR(14, "Horror"),
+    MUSIC(15, "Music"),
+    MUSICAL(16, "Musical"),
+    MYSTERY(17, "Mystery"),
+    NEWS(18, "News"),
+    REALITY_TV(19, "Reality-TV"),
+    ROMANCE(20, "Romance"),
+    SCI_FI(21, "Sci-Fi"),
+    SHORT(22, "Short"),
+    SPORT(23, "Sport"),
+    TALK_SHOW(24, "Talk-Show"),
+    THRILLER(25, "Thriller"),
+    WAR(26, "War"),
+    WESTERN(27, "Western");
+
+    private static final Genre[] BY_ID = new Genre[64];
+    private static final Map<String, Genre> BY_LABEL = new HashMap<>();
+
+    static {
+        for (Genre genre : values()) {
+            BY_ID[genre.id] = genre;
+            BY_LABEL.put(genre.label.toLowerCase(Locale.ROOT), genre);
+        }
+    }
+
+    private final int id;
+    private final String label;
+
+    Genre(int id, String label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    /**
+     * The name as OMDb and the stored genre strings spell it.
+     */
+    public String label() {
+        return label;
+    }
+
+    public long bit() {
+        return 1L << id;
+    }
+
+    public boolean in(long mask) {
+        return (mask & bit()) != 0;
+    }
+
+    /**
+     * Case-insensitive lookup by label; null for genres outside the dictionary.
+     */
+    public static Genre fromLabel(String label) {
+        return label == null ? null : BY_LABEL.get(label.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public static Genre fromId(int id) {
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+
+    /**
+     * Mask of a comma-separated genre string such as {@code "Action, Sci-Fi"}. Unknown names are ignored.
+     */
+    public static long maskOf(String genres) {
+        if (genres == null || genres.isBlank()) return 0L;
+        long mask = 0L;
+        int start = 0;
+        while (start <= genres.length()) {
+            int end = genres.indexOf(',', start);
+            if (end < 0) end = genres.length();
+            Genre genre = fromLabel(genres.substring(start, end));
+            if (genre != null) {
+                mask |= genre.bit();
+            }
+            start = end + 1;
+        }
+        return mask;
+    }
+
+    public static long maskOf(Iterable<String> labels) {
+        long mask = 0L;
+        for (String label : labels) {
+            Genre genre = fromLabel(label);
+            if (genre != null) {
+                mask |= genre.bit();
+            }
+        }
+        return mask;
+    }
+
+    public static boolean overlaps(long mask, long other) {
+        return (mask & other) != 0;
+    }
+
+    /**
+     * Genres of a mask in ID order.
+     */
+    public static List<Genre> fromMask(long mask) {
+        List<Genre> genres = new ArrayList<>(Long.bitCount(mask));
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            Genre genre = fromId(Long.numberOfTrailingZeros(rest));
+            if (genre != null) {
+                genres.add(genre);
+            }
+        }
+        return genres;
+    }
+
+    public static List<String> labelsOf(long mask) {
+        List<String> labels = new ArrayList<>(Long.bitCount(mask));
+        for (Genre genre : fromMask(mask)) {
+            labels.add(genre.label);
+        }
+        return labels;
+    }
+}
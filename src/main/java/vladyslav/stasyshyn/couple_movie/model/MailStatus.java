@@ -0,0 +1,5 @@
+package vladyslav.stasyshyn.couple_movie.model;
+
+public enum MailStatus {
+    PENDING, SENDING, SENT, FAILED
+}
@@ -3,17 +3,29 @@ package vladyslav.stasyshyn.couple_movie.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import vladyslav.stasyshyn.couple_movie.entity.CoupleMovie;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import vladyslav.stasyshyn.couple_movie.repository.projection.CoupleMembership;
+import vladyslav.stasyshyn.couple_movie.repository.projection.CoupleMovieUpsertResult;
 import vladyslav.stasyshyn.couple_movie.repository.projection.CoupleMovieWithDetails;
+import vladyslav.stasyshyn.couple_movie.repository.projection.CoupleStats;
+import vladyslav.stasyshyn.couple_movie.repository.projection.KeysetRow;
 
 @Repository
 public interface CoupleMovieRepository extends JpaRepository<CoupleMovie, Long> {
-    List<CoupleMovie> findByCoupleKey(String coupleKey);
 
-    @Query(value = "SELECT cm.id, cm.couple_key AS coupleKey, cm.imdb_id AS imdbId, " +
+    /**
+     * Whether the rating slot 1 belongs to (or may be claimed by) :userId: they already own it,
+     * or it is free and they do not own slot 2. Otherwise slot 2 is used.
+     */
+    String OWNS_SLOT_1 = "(user1_id IS NOT DISTINCT FROM :userId OR (user1_id IS NULL AND user2_id IS DISTINCT FROM :userId))";
+
+    List<CoupleMovie> findByCoupleId(Long coupleId);
+
+    @Query(value = "SELECT cm.id, cm.couple_id AS coupleId, cm.imdb_id AS imdbId, " +
            "cm.title, cm.poster, cm.year_val AS yearVal, cm.genre, " +
            "cm.added_by_user_id AS addedByUserId, cm.watch_status AS watchStatus, " +
            "cm.user_you_added AS userYouAdded, cm.partner_added AS partnerAdded, " +
@@ -23,17 +35,111 @@ public interface CoupleMovieRepository extends JpaRepository<CoupleMovie, Long>
            "cm.created_at AS createdAt, " +
            "m.imdb_rating AS imdbRating, m.awards AS awards " +
            "FROM couple_movies cm LEFT JOIN movies m ON cm.imdb_id = m.imdb_id " +
-           "WHERE cm.couple_key = :coupleKey " +
+           "WHERE cm.couple_id = :coupleId " +
            "ORDER BY cm.created_at DESC", nativeQuery = true)
-    List<CoupleMovieWithDetails> findByCoupleKeyWithDetails(@Param("coupleKey") String coupleKey,
+    List<CoupleMovieWithDetails> findByCoupleIdWithDetails(@Param("coupleId") Long coupleId,
+            @Param("userId") Long userId);
+
+    /**
+     * One page of the shared list after the given (created_at, id) position, newest first.
+     * The genre is a LIKE pattern escaped by the caller. Null filters are not applied;
+     * the page size is passed by the caller.
+     */
+    @Query(value = "SELECT cm.id, cm.couple_id AS coupleId, cm.imdb_id AS imdbId, " +
+           "cm.title, cm.poster, cm.year_val AS yearVal, cm.genre, " +
+           "cm.added_by_user_id AS addedByUserId, cm.watch_status AS watchStatus, " +
+           "cm.user_you_added AS userYouAdded, cm.partner_added AS partnerAdded, " +
+           "(cm.user_you_added = true AND cm.partner_added = true) AS isMatch, " +
+           "CASE WHEN cm.user1_id = :userId THEN cm.user1_rating ELSE cm.user2_rating END AS yourRating, " +
+           "CASE WHEN cm.user1_id = :userId THEN cm.user2_rating ELSE cm.user1_rating END AS partnerRating, " +
+           "cm.created_at AS createdAt, " +
+           "m.imdb_rating AS imdbRating, m.awards AS awards " +
+           "FROM couple_movies cm LEFT JOIN movies m ON cm.imdb_id = m.imdb_id " +
+           "WHERE cm.couple_id = :coupleId " +
+           "AND " + KeysetRow.AFTER_CURSOR + " " +
+           "AND (CAST(:watchStatus AS text) IS NULL OR cm.watch_status = CAST(:watchStatus AS text)) " +
+           "AND (CAST(:genre AS text) IS NULL OR cm.genre ILIKE '%' || CAST(:genre AS text) || '%') " +
+           "AND (:matchesOnly = false OR (cm.user_you_added = true AND cm.partner_added = true)) " +
+           KeysetRow.NEWEST_FIRST + " LIMIT :limit", nativeQuery = true)
+    List<CoupleMovieWithDetails> findPageByCoupleIdWithDetails(@Param("coupleId") Long coupleId,
+            @Param("userId") Long userId,
+            @Param("afterUndated") boolean afterUndated,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            @Param("watchStatus") String watchStatus,
+            @Param("genre") String genre,
+            @Param("matchesOnly") boolean matchesOnly,
+            @Param("limit") int limit);
+
+    @Query(value = "SELECT " +
+           "COUNT(*) FILTER (WHERE cm.user_you_added AND cm.partner_added) AS matches, " +
+           "COUNT(*) FILTER (WHERE cm.watch_status = 'WATCHLIST') AS watchlist, " +
+           "COUNT(*) FILTER (WHERE cm.watch_status = 'WATCHED') AS watched " +
+           "FROM couple_movies cm WHERE cm.couple_id = :coupleId", nativeQuery = true)
+    CoupleStats getStats(@Param("coupleId") Long coupleId);
+
+    /**
+     * Adds a movie to the shared list in one statement. A new row is filled from the movies table;
+     * if the couple already has the movie, only the caller's added flag is set. Atomic under concurrent
+     * adds of the same movie, which would otherwise race on the (couple_id, imdb_id) unique constraint.
+     */
+    @Query(value = "INSERT INTO couple_movies (couple_id, imdb_id, title, poster, year_val, genre, " +
+           "added_by_user_id, watch_status, user_you_added, partner_added, user1_id, created_at) " +
+           "SELECT :coupleId, :imdbId, COALESCE(m.title, ''), COALESCE(m.poster, ''), " +
+           "COALESCE(m.year_val, ''), COALESCE(m.genre, ''), :userId, 'WATCHLIST', true, false, :userId, now() " +
+           "FROM (SELECT 1) AS one LEFT JOIN movies m ON m.imdb_id = :imdbId " +
+           "ON CONFLICT (couple_id, imdb_id) DO UPDATE SET " +
+           "user_you_added = couple_movies.user_you_added OR couple_movies.added_by_user_id = :userId, " +
+           "partner_added = couple_movies.partner_added OR couple_movies.added_by_user_id <> :userId " +
+           "RETURNING id, imdb_id AS imdbId, title", nativeQuery = true)
+    CoupleMovieUpsertResult upsertAdded(@Param("coupleId") Long coupleId,
+            @Param("imdbId") String imdbId,
             @Param("userId") Long userId);
 
-    Optional<CoupleMovie> findByCoupleKeyAndImdbId(String coupleKey, String imdbId);
+    /**
+     * Writes the caller's rating into their slot, claiming a free one if needed, in a single UPDATE.
+     * The slot is chosen from the row version the UPDATE locks, so concurrent raters cannot
+     * claim the same slot or overwrite each other. Returns the watch status, empty if the movie is not in the list.
+     */
+    @Query(value = "UPDATE couple_movies SET " +
+           "user1_id = CASE WHEN " + OWNS_SLOT_1 + " THEN :userId ELSE user1_id END, " +
+           "user1_rating = CASE WHEN " + OWNS_SLOT_1 + " THEN :rating ELSE user1_rating END, " +
+           "user2_id = CASE WHEN " + OWNS_SLOT_1 + " THEN user2_id ELSE :userId END, " +
+           "user2_rating = CASE WHEN " + OWNS_SLOT_1 + " THEN user2_rating ELSE :rating END " +
+           "WHERE couple_id = :coupleId AND imdb_id = :imdbId " +
+           "RETURNING watch_status", nativeQuery = true)
+    Optional<String> rateInSlot(@Param("coupleId") Long coupleId,
+            @Param("imdbId") String imdbId,
+            @Param("userId") Long userId,
+            @Param("rating") Double rating);
+
+    /**
+     * Sets the watch status and, when moving back to the watchlist, clears only the caller's own rating.
+     * Returns the new watch status, empty if the movie is not in the list.
+     */
+    @Query(value = "UPDATE couple_movies SET watch_status = :watchStatus, " +
+           "user1_rating = CASE WHEN :clearOwnRating AND user1_id = :userId THEN NULL ELSE user1_rating END, " +
+           "user2_rating = CASE WHEN :clearOwnRating AND user1_id IS DISTINCT FROM :userId AND user2_id = :userId " +
+           "THEN NULL ELSE user2_rating END " +
+           "WHERE couple_id = :coupleId AND imdb_id = :imdbId " +
+           "RETURNING watch_status", nativeQuery = true)
+    Optional<String> updateWatchStatus(@Param("coupleId") Long coupleId,
+            @Param("imdbId") String imdbId,
+            @Param("userId") Long userId,
+            @Param("watchStatus") String watchStatus,
+            @Param("clearOwnRating") boolean clearOwnRating);
+
+    Optional<CoupleMovie> findByCoupleIdAndImdbId(Long coupleId, String imdbId);
+
+    void deleteByCoupleIdAndImdbId(Long coupleId, String imdbId);
 
-    void deleteByCoupleKeyAndImdbId(String coupleKey, String imdbId);
+    @Query("SELECT c.imdbId AS imdbId, c.addedByUserId AS addedByUserId, c.userYouAdded AS userYouAdded, " +
+           "c.partnerAdded AS partnerAdded, c.watchStatus AS watchStatus " +
+           "FROM CoupleMovie c WHERE c.coupleId = :coupleId")
+    List<CoupleMembership> findMembershipByCoupleId(@Param("coupleId") Long coupleId);
 
-    @Query("SELECT c.imdbId FROM CoupleMovie c WHERE c.coupleKey = :coupleKey AND " +
+    @Query("SELECT c.imdbId FROM CoupleMovie c WHERE c.coupleId = :coupleId AND " +
            "((c.addedByUserId = :userId AND c.userYouAdded = true) OR " +
            "(c.addedByUserId <> :userId AND c.partnerAdded = true))")
-    List<String> findMyAddedImdbIds(@Param("coupleKey") String coupleKey, @Param("userId") Long userId);
+    List<String> findMyAddedImdbIds(@Param("coupleId") Long coupleId, @Param("userId") Long userId);
 }
@@ -0,0 +1,19 @@
+package vladyslav.stasyshyn.couple_movie.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vladyslav.stasyshyn.couple_movie.entity.Couple;
+
+@Repository
+public interface CoupleRepository extends JpaRepository<Couple, Long> {
+
+    /**
+     * Returns the ID of the couple for this (ordered) pair, creating it if needed; safe against concurrent accepts.
+     */
+    @Query(value = "INSERT INTO couples (user1_id, user2_id, created_at) VALUES (:user1Id, :user2Id, now()) " +
+           "ON CONFLICT (user1_id, user2_id) DO UPDATE SET user1_id = EXCLUDED.user1_id " +
+           "RETURNING id", nativeQuery = true)
+    Long findOrCreateId(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+}
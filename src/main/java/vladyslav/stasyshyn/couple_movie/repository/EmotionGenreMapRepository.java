@@ -1,11 +1,16 @@
 package vladyslav.stasyshyn.couple_movie.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import vladyslav.stasyshyn.couple_movie.entity.EmotionGenreMap;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EmotionGenreMapRepository extends JpaRepository<EmotionGenreMap, String> {
     Optional<EmotionGenreMap> findByEmotion(String emotion);
+
+    @Query("SELECT DISTINCT m FROM EmotionGenreMap m LEFT JOIN FETCH m.genres ORDER BY m.emotion")
+    List<EmotionGenreMap> findAllWithGenres();
 }
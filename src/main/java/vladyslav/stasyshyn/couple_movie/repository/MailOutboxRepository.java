@@ -0,0 +1,41 @@
+package vladyslav.stasyshyn.couple_movie.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import vladyslav.stasyshyn.couple_movie.entity.MailOutbox;
+import vladyslav.stasyshyn.couple_movie.model.MailStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    /**
+     * Due messages, locked so that concurrent dispatchers (other instances) skip them.
+     * SENDING rows whose lease ran out belong to a dispatcher that died mid-send and are picked up again.
+     */
+    @Query(value = "SELECT * FROM mail_outbox " +
+           "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+           "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = :status, m.nextAttemptAt = :nextAttemptAt, " +
+           "m.lastError = :lastError, m.sentAt = :sentAt WHERE m.id = :id")
+    int updateDelivery(@Param("id") Long id,
+                       @Param("status") MailStatus status,
+                       @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                       @Param("lastError") String lastError,
+                       @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MailOutbox m WHERE m.status = :status AND m.sentAt < :before")
+    int deleteSentBefore(@Param("status") MailStatus status, @Param("before") LocalDateTime before);
+}
@@ -1,9 +1,15 @@
 package vladyslav.stasyshyn.couple_movie.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
+import vladyslav.stasyshyn.couple_movie.model.EnrichmentState;
+
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +20,45 @@ public interface MovieRepository extends JpaRepository<Movie, String> {
 
     java.util.List<Movie> findByImdbIdIn(java.util.List<String> imdbIds);
 
+    @Query("SELECT m FROM Movie m WHERE m.imdbRating > :minRating AND m.startYear <= :maxStartYear " +
+           "ORDER BY m.imdbVotesNum DESC NULLS LAST")
+    java.util.List<Movie> findHighlyRatedUpToYear(@Param("minRating") double minRating,
+                                                 @Param("maxStartYear") int maxStartYear);
+
+    /**
+     * Moves a pending row to IN_PROGRESS and stamps the claim; 0 if it is already enriched, being enriched or absent.
+     * The conditional update makes concurrent claims of the same movie (also across instances) exclusive.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE movies SET enrichment_state = 'IN_PROGRESS', enrichment_claimed_at = :now " +
+           "WHERE imdb_id = :imdbId AND (enrichment_state IS NULL OR enrichment_state = 'PENDING')", nativeQuery = true)
+    int claimForEnrichment(@Param("imdbId") String imdbId, @Param("now") LocalDateTime now);
+
+    /**
+     * Sets the outcome of a claim (or hands it back as PENDING) and clears the claim stamp.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Movie m SET m.enrichmentState = :state, m.enrichmentClaimedAt = NULL WHERE m.imdbId = :imdbId")
+    int updateEnrichmentState(@Param("imdbId") String imdbId, @Param("state") EnrichmentState state);
+
+    /**
+     * Hands claims whose lease ran out back to PENDING: their instance stopped mid-fetch.
+     * Claims without a stamp predate the lease and count as expired.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE movies SET enrichment_state = 'PENDING', enrichment_claimed_at = NULL " +
+           "WHERE enrichment_state = 'IN_PROGRESS' " +
+           "AND (enrichment_claimed_at IS NULL OR enrichment_claimed_at < :claimedBefore)", nativeQuery = true)
+    int releaseExpiredEnrichmentClaims(@Param("claimedBefore") LocalDateTime claimedBefore);
+
+    /**
+     * Pending rows, most popular first, for the background backfill.
+     */
+    @Query(value = "SELECT imdb_id FROM movies WHERE enrichment_state = 'PENDING' " +
+           "ORDER BY imdb_votes_num DESC NULLS LAST LIMIT :limit", nativeQuery = true)
+    java.util.List<String> findPendingEnrichment(@Param("limit") int limit);
+
 }
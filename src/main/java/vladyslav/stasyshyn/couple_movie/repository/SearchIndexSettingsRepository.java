@@ -0,0 +1,9 @@
+package vladyslav.stasyshyn.couple_movie.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import vladyslav.stasyshyn.couple_movie.entity.SearchIndexSettings;
+
+@Repository
+public interface SearchIndexSettingsRepository extends JpaRepository<SearchIndexSettings, String> {
+}
@@ -6,7 +6,10 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vladyslav.stasyshyn.couple_movie.entity.User;
 import vladyslav.stasyshyn.couple_movie.entity.UserFavorite;
+import vladyslav.stasyshyn.couple_movie.repository.projection.FavoriteMembership;
 import vladyslav.stasyshyn.couple_movie.repository.projection.FavoriteWithDetails;
+import vladyslav.stasyshyn.couple_movie.repository.projection.KeysetRow;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +32,32 @@ public interface UserFavoriteRepository extends JpaRepository<UserFavorite, Long
            "ORDER BY uf.created_at DESC", nativeQuery = true)
     List<FavoriteWithDetails> findByUserWithDetails(@Param("userId") Long userId);
 
+    /**
+     * One page of favorites after the given (created_at, id) position, newest first.
+     * The genre is a LIKE pattern escaped by the caller. Null filters are not applied;
+     * the page size is passed by the caller.
+     */
+    @Query(value = "SELECT uf.id, uf.imdb_id AS imdbId, uf.title, uf.poster, " +
+           "uf.year_val AS yearVal, uf.genre, uf.watch_status AS watchStatus, " +
+           "uf.user_rating AS userRating, uf.created_at AS createdAt, " +
+           "m.imdb_rating AS imdbRating, m.awards AS awards " +
+           "FROM user_favorites uf LEFT JOIN movies m ON uf.imdb_id = m.imdb_id " +
+           "WHERE uf.user_id = :userId " +
+           "AND " + KeysetRow.AFTER_CURSOR + " " +
+           "AND (CAST(:watchStatus AS text) IS NULL OR uf.watch_status = CAST(:watchStatus AS text)) " +
+           "AND (CAST(:genre AS text) IS NULL OR uf.genre ILIKE '%' || CAST(:genre AS text) || '%') " +
+           KeysetRow.NEWEST_FIRST + " LIMIT :limit", nativeQuery = true)
+    List<FavoriteWithDetails> findPageByUserWithDetails(@Param("userId") Long userId,
+            @Param("afterUndated") boolean afterUndated,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            @Param("watchStatus") String watchStatus,
+            @Param("genre") String genre,
+            @Param("limit") int limit);
+
+    @Query("SELECT uf.imdbId AS imdbId, uf.watchStatus AS watchStatus FROM UserFavorite uf WHERE uf.user.id = :userId")
+    List<FavoriteMembership> findMembershipByUserId(@Param("userId") Long userId);
+
     @Query("SELECT uf.imdbId FROM UserFavorite uf WHERE uf.user = :user")
     List<String> findImdbIdsByUser(@Param("user") User user);
 }
@@ -0,0 +1,15 @@
+package vladyslav.stasyshyn.couple_movie.repository.projection;
+
+import vladyslav.stasyshyn.couple_movie.model.WatchStatus;
+
+public interface CoupleMembership {
+    String getImdbId();
+
+    Long getAddedByUserId();
+
+    boolean getUserYouAdded();
+
+    boolean getPartnerAdded();
+
+    WatchStatus getWatchStatus();
+}
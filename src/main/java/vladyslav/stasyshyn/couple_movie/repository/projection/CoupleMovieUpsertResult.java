@@ -0,0 +1,9 @@
+package vladyslav.stasyshyn.couple_movie.repository.projection;
+
+public interface CoupleMovieUpsertResult {
+    Long getId();
+
+    String getImdbId();
+
+    String getTitle();
+}
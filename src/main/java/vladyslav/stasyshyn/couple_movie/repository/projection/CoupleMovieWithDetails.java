@@ -2,10 +2,10 @@ package vladyslav.stasyshyn.couple_movie.repository.projection;
 
 import java.time.LocalDateTime;
 
-public interface CoupleMovieWithDetails {
+public interface CoupleMovieWithDetails extends KeysetRow {
     Long getId();
 
-    String getCoupleKey();
+    Long getCoupleId();
 
     String getImdbId();
 
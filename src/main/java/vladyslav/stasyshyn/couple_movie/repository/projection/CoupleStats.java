@@ -0,0 +1,9 @@
+package vladyslav.stasyshyn.couple_movie.repository.projection;
+
+public interface CoupleStats {
+    long getMatches();
+
+    long getWatchlist();
+
+    long getWatched();
+}
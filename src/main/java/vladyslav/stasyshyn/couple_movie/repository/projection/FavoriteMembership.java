@@ -0,0 +1,9 @@
+package vladyslav.stasyshyn.couple_movie.repository.projection;
+
+import vladyslav.stasyshyn.couple_movie.model.WatchStatus;
+
+public interface FavoriteMembership {
+    String getImdbId();
+
+    WatchStatus getWatchStatus();
+}
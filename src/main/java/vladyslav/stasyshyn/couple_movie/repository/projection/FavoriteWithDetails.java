@@ -2,7 +2,7 @@ package vladyslav.stasyshyn.couple_movie.repository.projection;
 
 import java.time.LocalDateTime;
 
-public interface FavoriteWithDetails {
+public interface FavoriteWithDetails extends KeysetRow {
     Long getId();
 
     String getImdbId();
@@ -0,0 +1,23 @@
+package vladyslav.stasyshyn.couple_movie.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of a list paged by {@code (created_at, id)}. The SQL fragments use unqualified column names,
+ * so they fit any query whose only {@code created_at}/{@code id} columns belong to the paged table.
+ */
+public interface KeysetRow {
+
+    /**
+     * Rows after the cursor position. An undated cursor sits among the legacy rows without
+     * {@code created_at}, which sort first; every dated row still follows it.
+     */
+    String AFTER_CURSOR = "((:afterUndated = true AND (created_at IS NOT NULL OR id < :afterId)) " +
+            "OR (:afterUndated = false AND (created_at, id) < (:afterCreatedAt, :afterId)))";
+
+    String NEWEST_FIRST = "ORDER BY created_at DESC NULLS FIRST, id DESC";
+
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+}
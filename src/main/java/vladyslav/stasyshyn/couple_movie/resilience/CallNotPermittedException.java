@@ -0,0 +1,13 @@
+package vladyslav.stasyshyn.couple_movie.resilience;
+
+import vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException;
+
+/**
+ * Thrown instead of calling a dependency whose circuit breaker is open.
+ */
+public class CallNotPermittedException extends DependencyUnavailableException {
+
+    public CallNotPermittedException(String dependency) {
+        super("Circuit breaker for '" + dependency + "' is open");
+    }
+}
@@ -0,0 +1,116 @@
+package vladyslav.stasyshyn.couple_movie.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failed (or slower than
+ * {@code slowCallThreshold}) calls it opens and rejects calls for {@code openDuration}; then a single
+ * trial call is let through (half-open) and its outcome closes or re-opens it. A health check can
+ * close it early through {@link #reset()}. Calls are run and timed by {@link DependencyGuard}.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final long slowCallThresholdNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private boolean forcedOpen;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Duration slowCallThreshold) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = openDuration.toNanos();
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+    }
+
+    /**
+     * Records a completed call: a success, unless it took longer than the slow-call threshold.
+     */
+    public void onResult(long elapsedNanos) {
+        if (elapsedNanos > slowCallThresholdNanos) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (forcedOpen) {
+            return false;
+        }
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit breaker '{}' closed.", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            if (state == State.CLOSED) {
+                log.warn("Circuit breaker '{}' opened after {} consecutive failures.", name, consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Closes the breaker, e.g. after a successful health check.
+     */
+    public synchronized void reset() {
+        if (!forcedOpen) {
+            onSuccess();
+        }
+    }
+
+    /**
+     * Keeps the breaker open for good, for a dependency that is switched off by configuration.
+     */
+    public synchronized void forceOpen() {
+        forcedOpen = true;
+        state = State.OPEN;
+    }
+
+    public synchronized boolean isForcedOpen() {
+        return forcedOpen;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
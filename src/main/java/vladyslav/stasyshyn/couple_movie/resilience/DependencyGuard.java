@@ -0,0 +1,186 @@
+package vladyslav.stasyshyn.couple_movie.resilience;
+
+import org.springframework.web.client.HttpClientErrorException;
+import vladyslav.stasyshyn.couple_movie.dto.DependencyStatusResponse;
+import vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Wraps every call to one outbound dependency in a bulkhead (bounded concurrent calls), a circuit
+ * breaker and an overall call timeout, so a slow or failing upstream costs callers at most the
+ * timeout and never more than its share of threads. Rejections, timeouts and failures surface as
+ * {@link DependencyUnavailableException}, or go to the caller's fallback.
+ */
+public class DependencyGuard {
+
+    private final String name;
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMillis;
+    private final long callTimeoutMillis;
+    private final ExecutorService timeoutExecutor;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejectedByCircuit = new LongAdder();
+    private final LongAdder rejectedByBulkhead = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder completedCalls = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * @param callTimeoutMillis 0 runs calls on the caller's thread without an overall timeout
+     * @param timeoutExecutor   runs the calls that have a timeout, so the caller can stop waiting
+     */
+    public DependencyGuard(String name, CircuitBreaker breaker, int maxConcurrentCalls, long maxWaitMillis,
+                           long callTimeoutMillis, ExecutorService timeoutExecutor) {
+        this.name = name;
+        this.breaker = breaker;
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.bulkhead = new Semaphore(this.maxConcurrentCalls);
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.callTimeoutMillis = Math.max(0, callTimeoutMillis);
+        this.timeoutExecutor = timeoutExecutor;
+    }
+
+    public <T> T call(Callable<T> call) {
+        return call(call, null);
+    }
+
+    /**
+     * Runs the call, or the fallback when the dependency is unavailable (rejected, timed out or failed).
+     * A 4xx answer is not a dependency failure and is rethrown to the caller as is.
+     */
+    public <T> T call(Callable<T> call, Function<DependencyUnavailableException, T> fallback) {
+        try {
+            return execute(call);
+        } catch (DependencyUnavailableException e) {
+            if (fallback == null) {
+                throw e;
+            }
+            fallbacks.increment();
+            return fallback.apply(e);
+        }
+    }
+
+    private <T> T execute(Callable<T> call) {
+        if (!acquireBulkhead()) {
+            rejectedByBulkhead.increment();
+            throw new DependencyUnavailableException(
+                    "'" + name + "' is at its limit of " + maxConcurrentCalls + " concurrent calls");
+        }
+        try {
+            if (!breaker.tryAcquire()) {
+                rejectedByCircuit.increment();
+                throw new CallNotPermittedException(name);
+            }
+            long started = System.nanoTime();
+            try {
+                T result = invoke(call);
+                long elapsed = recordLatency(started);
+                breaker.onResult(elapsed);
+                successes.increment();
+                return result;
+            } catch (HttpClientErrorException e) {
+                // The dependency answered; the request itself was rejected
+                recordLatency(started);
+                breaker.onSuccess();
+                throw e;
+            } catch (TimeoutException e) {
+                recordLatency(started);
+                breaker.onFailure();
+                timeouts.increment();
+                failures.increment();
+                throw new DependencyUnavailableException(
+                        "'" + name + "' did not answer within " + callTimeoutMillis + " ms", e);
+            } catch (Exception e) {
+                recordLatency(started);
+                breaker.onFailure();
+                failures.increment();
+                throw new DependencyUnavailableException("'" + name + "' call failed: " + e.getMessage(), e);
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private <T> T invoke(Callable<T> call) throws Exception {
+        if (callTimeoutMillis == 0) {
+            return call.call();
+        }
+        Future<T> future = timeoutExecutor.submit(call);
+        try {
+            return future.get(callTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return maxWaitMillis == 0
+                    ? bulkhead.tryAcquire()
+                    : bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long recordLatency(long started) {
+        long elapsed = System.nanoTime() - started;
+        completedCalls.increment();
+        totalLatencyNanos.add(elapsed);
+        maxLatencyNanos.accumulateAndGet(elapsed, Math::max);
+        return elapsed;
+    }
+
+    public CircuitBreaker breaker() {
+        return breaker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DependencyStatusResponse status() {
+        long completed = completedCalls.sum();
+        return new DependencyStatusResponse(
+                name,
+                breaker.getState().name(),
+                maxConcurrentCalls - bulkhead.availablePermits(),
+                maxConcurrentCalls,
+                callTimeoutMillis,
+                successes.sum(),
+                failures.sum(),
+                timeouts.sum(),
+                rejectedByCircuit.sum(),
+                rejectedByBulkhead.sum(),
+                fallbacks.sum(),
+                completed == 0 ? 0.0 : totalLatencyNanos.sum() / (double) completed / 1_000_000.0,
+                maxLatencyNanos.get() / 1_000_000.0);
+    }
+}
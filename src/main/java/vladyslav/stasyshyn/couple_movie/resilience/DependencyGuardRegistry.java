@@ -0,0 +1,107 @@
+package vladyslav.stasyshyn.couple_movie.resilience;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import vladyslav.stasyshyn.couple_movie.dto.DependencyStatusResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * One {@link DependencyGuard} per outbound dependency, configured under {@code app.resilience.<name>}:
+ * connect/read timeouts for its HTTP client, overall call timeout, bulkhead size and circuit breaker.
+ */
+@Component
+@Slf4j
+public class DependencyGuardRegistry {
+
+    private static final String PREFIX = "app.resilience.";
+
+    private final Environment environment;
+    private final CloseableHttpClient pooledHttpClient;
+    private final PoolingHttpClientConnectionManager httpConnectionManager;
+    private final Map<String, DependencyGuard> guards = new ConcurrentHashMap<>();
+    private final ExecutorService timeoutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DependencyGuardRegistry(Environment environment,
+                                   CloseableHttpClient pooledHttpClient,
+                                   PoolingHttpClientConnectionManager httpConnectionManager) {
+        this.environment = environment;
+        this.pooledHttpClient = pooledHttpClient;
+        this.httpConnectionManager = httpConnectionManager;
+    }
+
+    public DependencyGuard guard(String name) {
+        return guards.computeIfAbsent(name, this::create);
+    }
+
+    /**
+     * A request factory for the dependency's {@code RestClient} on the shared connection pool, with its
+     * connect/read timeouts. {@code max-connections} caps the pooled connections to its host.
+     */
+    public ClientHttpRequestFactory requestFactory(String name, String baseUrl) {
+        Long maxConnections = environment.getProperty(PREFIX + name + ".max-connections", Long.class);
+        if (maxConnections != null) {
+            httpConnectionManager.setMaxPerRoute(route(baseUrl), maxConnections.intValue());
+        }
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(pooledHttpClient);
+        factory.setConnectTimeout(Duration.ofMillis(property(name, "connect-timeout-ms", 2000L)));
+        factory.setReadTimeout(Duration.ofMillis(property(name, "read-timeout-ms", 5000L)));
+        // Waiting for a pooled connection is bounded like waiting for a bulkhead slot
+        factory.setConnectionRequestTimeout(Duration.ofMillis(Math.max(property(name, "max-wait-ms", 0L), 1000L)));
+        return factory;
+    }
+
+    /**
+     * The route the client plans for a base URL: explicit default port, TLS for https.
+     */
+    private static HttpRoute route(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), null, secure);
+    }
+
+    public List<DependencyStatusResponse> statuses() {
+        return guards.values().stream()
+                .map(DependencyGuard::status)
+                .sorted(Comparator.comparing(DependencyStatusResponse::name))
+                .toList();
+    }
+
+    private DependencyGuard create(String name) {
+        long callTimeoutMs = property(name, "call-timeout-ms", 10000L);
+        int maxConcurrentCalls = property(name, "max-concurrent-calls", 20L).intValue();
+        CircuitBreaker breaker = new CircuitBreaker(name,
+                property(name, "failure-threshold", 5L).intValue(),
+                Duration.ofMillis(property(name, "open-duration-ms", 30000L)),
+                Duration.ofMillis(property(name, "slow-call-ms", callTimeoutMs > 0 ? callTimeoutMs : 60000L)));
+        log.info("Guarding '{}' with a {} ms call timeout and {} concurrent calls.",
+                name, callTimeoutMs, maxConcurrentCalls);
+        return new DependencyGuard(name, breaker, maxConcurrentCalls,
+                property(name, "max-wait-ms", 0L), callTimeoutMs, timeoutExecutor);
+    }
+
+    private Long property(String name, String key, long defaultValue) {
+        return environment.getProperty(PREFIX + name + "." + key, Long.class, defaultValue);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,56 @@
+package vladyslav.stasyshyn.couple_movie.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket: refills at {@code permitsPerSecond} up to {@code burst} tokens, so an idle limiter lets a
+ * short burst through at once and then settles at the rate. A caller that finds the bucket empty takes its
+ * token on credit and sleeps until the refill has paid it back, which keeps waiting callers in arrival order.
+ */
+public class RateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final LongSupplier clock;
+    private double tokens;
+    private long refilledAt;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, LongSupplier clock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.clock = clock;
+        this.tokens = this.burst;
+        this.refilledAt = clock.getAsLong();
+    }
+
+    public void acquire() throws InterruptedException {
+        long wakeAt = clock.getAsLong() + reserve();
+        long wait;
+        while ((wait = wakeAt - clock.getAsLong()) > 0) {
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Takes a token, going into debt if the bucket is empty; returns how long to wait until it is covered.
+     */
+    synchronized long reserve() {
+        long now = clock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+    }
+}
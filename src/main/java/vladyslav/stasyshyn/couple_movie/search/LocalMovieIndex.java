@@ -0,0 +1,224 @@
+package vladyslav.stasyshyn.couple_movie.search;
+
+import org.springframework.stereotype.Component;
+import vladyslav.stasyshyn.couple_movie.document.MovieDocument;
+import vladyslav.stasyshyn.couple_movie.dto.SearchCursor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * In-process copy of the Meilisearch movie index, fed from the same {@link MovieDocument} stream,
+ * that answers searches while Meilisearch is unreachable. Titles are kept in an inverted index
+ * (all query words must match, the last one as a prefix, stop words ignored); filters are
+ * {@link MeiliFilter} trees evaluated against the documents, and results use the browse order
+ * (votes descending, then IMDb number).
+ */
+@Component
+public class LocalMovieIndex {
+
+    public static final Comparator<MovieDocument> BROWSE_ORDER = Comparator
+            .comparingLong((MovieDocument document) -> valueOf(document.getImdbVotesInt())).reversed()
+            .thenComparingLong(document -> valueOf(document.getImdbNum()));
+
+    /**
+     * Browse order made total by the IMDb ID, so documents sharing votes and number can share the ordered set.
+     * A cursor probe has no ID and sorts after every document at its position.
+     */
+    private static final Comparator<MovieDocument> SET_ORDER = BROWSE_ORDER
+            .thenComparing(MovieDocument::getImdbID, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "and", "or", "but", "in", "on", "at",
+            "to", "for", "of", "with", "by", "from", "up", "about",
+            "into", "over", "after", "is", "are", "was", "were");
+
+    private final Map<String, MovieDocument> documents = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+    /**
+     * The documents kept in browse order as they are written, so reads never sort the corpus.
+     */
+    private final ConcurrentSkipListSet<MovieDocument> ordered = new ConcurrentSkipListSet<>(SET_ORDER);
+
+    public record Result(List<String> ids, long totalHits, Map<String, Map<String, Long>> facets) {
+    }
+
+    /**
+     * Adds or replaces documents by IMDb ID.
+     */
+    public synchronized void addAll(Collection<MovieDocument> batch) {
+        for (MovieDocument document : batch) {
+            if (document.getImdbID() == null) {
+                continue;
+            }
+            MovieDocument previous = documents.put(document.getImdbID(), document);
+            if (previous != null) {
+                ordered.remove(previous);
+                for (String token : tokens(previous.getTitle())) {
+                    Set<String> ids = postings.get(token);
+                    if (ids != null) {
+                        ids.remove(previous.getImdbID());
+                    }
+                }
+            }
+            for (String token : tokens(document.getTitle())) {
+                postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(document.getImdbID());
+            }
+            ordered.add(document);
+        }
+    }
+
+    public synchronized void clear() {
+        documents.clear();
+        postings.clear();
+        ordered.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Title search (blank query = all documents) narrowed by a filter, one offset page of IDs in browse order.
+     */
+    public Result search(String query, MeiliFilter filter, int offset, int limit, boolean withFacets) {
+        List<MovieDocument> matches = new ArrayList<>();
+        for (MovieDocument document : candidates(query)) {
+            if (filter.matches(name -> attribute(document, name))) {
+                matches.add(document);
+            }
+        }
+        int from = Math.min(Math.max(offset, 0), matches.size());
+        int to = Math.min(from + Math.max(limit, 0), matches.size());
+        List<String> ids = matches.subList(from, to).stream().map(MovieDocument::getImdbID).toList();
+        return new Result(ids, matches.size(), withFacets ? facets(matches) : null);
+    }
+
+    /**
+     * Up to {@code limit} filtered documents strictly after the cursor in browse order.
+     */
+    public List<MovieDocument> searchAfter(MeiliFilter filter, SearchCursor after, int limit) {
+        List<MovieDocument> page = new ArrayList<>(limit);
+        Collection<MovieDocument> remaining = after == null ? ordered : ordered.tailSet(MovieDocument.builder()
+                .imdbVotesInt(after.votes())
+                .imdbNum(after.imdbNum())
+                .build(), false);
+        for (MovieDocument document : remaining) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (filter.matches(name -> attribute(document, name))) {
+                page.add(document);
+            }
+        }
+        return page;
+    }
+
+    private Collection<MovieDocument> candidates(String query) {
+        List<String> words = tokens(query);
+        if (words.isEmpty()) {
+            return ordered;
+        }
+        Set<String> ids = null;
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            Set<String> matching = new HashSet<>();
+            if (i == words.size() - 1) {
+                postings.subMap(word, true, word + Character.MAX_VALUE, true).values().forEach(matching::addAll);
+            } else {
+                matching.addAll(postings.getOrDefault(word, Set.of()));
+            }
+            if (ids == null) {
+                ids = matching;
+            } else {
+                ids.retainAll(matching);
+            }
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<MovieDocument> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            MovieDocument document = documents.get(id);
+            if (document != null) {
+                found.add(document);
+            }
+        }
+        found.sort(BROWSE_ORDER);
+        return found;
+    }
+
+    private static Map<String, Map<String, Long>> facets(List<MovieDocument> matches) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        NavigableMap<String, Long> genres = new TreeMap<>();
+        NavigableMap<String, Long> decades = new TreeMap<>();
+        NavigableMap<String, Long> awards = new TreeMap<>();
+        NavigableMap<String, Long> ratings = new TreeMap<>();
+        for (MovieDocument document : matches) {
+            if (document.getGenre() != null) {
+                document.getGenre().forEach(genre -> genres.merge(genre, 1L, Long::sum));
+            }
+            if (document.getDecade() != null) {
+                decades.merge(String.valueOf(document.getDecade()), 1L, Long::sum);
+            }
+            if (document.getHasWinAward() != null) {
+                awards.merge(String.valueOf(document.getHasWinAward()), 1L, Long::sum);
+            }
+            if (document.getRatingBucket() != null) {
+                ratings.merge(document.getRatingBucket(), 1L, Long::sum);
+            }
+        }
+        facets.put("genre", genres);
+        facets.put("decade", decades);
+        facets.put("hasWinAward", awards);
+        facets.put("ratingBucket", ratings);
+        return facets;
+    }
+
+    private static Object attribute(MovieDocument document, String name) {
+        return switch (name) {
+            case "imdbID" -> document.getImdbID();
+            case "title" -> document.getTitle();
+            case "genre" -> document.getGenre();
+            case "imdbRating" -> document.getImdbRating();
+            case "hasWinAward" -> document.getHasWinAward();
+            case "yearInt" -> document.getYearInt();
+            case "imdbVotesInt" -> document.getImdbVotesInt();
+            case "decade" -> document.getDecade();
+            case "ratingBucket" -> document.getRatingBucket();
+            case "imdbNum" -> document.getImdbNum();
+            default -> null;
+        };
+    }
+
+    private static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                tokens.add(word);
+            }
+        }
+        return tokens;
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0L : value;
+    }
+}
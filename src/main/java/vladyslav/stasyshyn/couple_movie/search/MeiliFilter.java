@@ -0,0 +1,236 @@
+package vladyslav.stasyshyn.couple_movie.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A Meilisearch filter expression as a small typed tree instead of concatenated strings.
+ * String values are quoted and escaped when rendered, identical clauses are dropped, and
+ * equality tests on one attribute inside an OR collapse into a single {@code IN [...]}.
+ * Nodes are records, so equal trees are equal keys and render to the same string. A tree can also be
+ * evaluated in process against a document's attributes, which the local fallback index uses.
+ */
+public sealed interface MeiliFilter {
+
+    /**
+     * Matches everything; renders to an empty filter.
+     */
+    MeiliFilter ALL = new And(List.of());
+
+    String render();
+
+    /**
+     * Evaluates the filter with Meilisearch semantics: an equality test on an array attribute matches
+     * any element, strings compare case-insensitively and a missing attribute matches nothing.
+     */
+    boolean matches(Function<String, Object> attributes);
+
+    static MeiliFilter eq(String attribute, Object value) {
+        return new Eq(attribute, value);
+    }
+
+    static MeiliFilter in(String attribute, Iterable<?> values) {
+        Set<Object> distinct = new LinkedHashSet<>();
+        values.forEach(distinct::add);
+        if (distinct.isEmpty()) {
+            return ALL;
+        }
+        return distinct.size() == 1
+                ? new Eq(attribute, distinct.iterator().next())
+                : new In(attribute, List.copyOf(distinct));
+    }
+
+    static MeiliFilter atLeast(String attribute, Number min) {
+        return new Range(attribute, min, true, null, false);
+    }
+
+    static MeiliFilter greaterThan(String attribute, Number min) {
+        return new Range(attribute, min, false, null, false);
+    }
+
+    static MeiliFilter lessThan(String attribute, Number max) {
+        return new Range(attribute, null, false, max, false);
+    }
+
+    static MeiliFilter atMost(String attribute, Number max) {
+        return new Range(attribute, null, false, max, true);
+    }
+
+    static MeiliFilter between(String attribute, Number min, Number max) {
+        return new Range(attribute, min, true, max, true);
+    }
+
+    /**
+     * Conjunction with nested ANDs flattened, {@link #ALL} terms and duplicates removed.
+     */
+    static MeiliFilter and(MeiliFilter... filters) {
+        return and(Arrays.asList(filters));
+    }
+
+    static MeiliFilter and(List<MeiliFilter> filters) {
+        Set<MeiliFilter> terms = new LinkedHashSet<>();
+        for (MeiliFilter filter : filters) {
+            if (filter instanceof And and) {
+                terms.addAll(and.terms());
+            } else if (filter != null) {
+                terms.add(filter);
+            }
+        }
+        return terms.size() == 1 ? terms.iterator().next() : new And(List.copyOf(terms));
+    }
+
+    /**
+     * Disjunction with nested ORs flattened and equality tests per attribute merged into one {@code IN}.
+     * An {@link #ALL} term makes the whole OR match everything.
+     */
+    static MeiliFilter or(List<MeiliFilter> filters) {
+        Map<String, Set<Object>> valuesByAttribute = new LinkedHashMap<>();
+        Set<MeiliFilter> others = new LinkedHashSet<>();
+        List<MeiliFilter> pending = new ArrayList<>(filters);
+        for (int i = 0; i < pending.size(); i++) {
+            MeiliFilter filter = pending.get(i);
+            if (filter == null) {
+                continue;
+            }
+            if (filter.equals(ALL)) {
+                return ALL;
+            }
+            switch (filter) {
+                case Or or -> pending.addAll(or.terms());
+                case Eq eq -> valuesByAttribute.computeIfAbsent(eq.attribute(), a -> new LinkedHashSet<>()).add(eq.value());
+                case In in -> valuesByAttribute.computeIfAbsent(in.attribute(), a -> new LinkedHashSet<>()).addAll(in.values());
+                default -> others.add(filter);
+            }
+        }
+
+        List<MeiliFilter> terms = new ArrayList<>();
+        valuesByAttribute.forEach((attribute, values) -> terms.add(in(attribute, values)));
+        terms.addAll(others);
+        if (terms.isEmpty()) {
+            return ALL;
+        }
+        return terms.size() == 1 ? terms.get(0) : new Or(List.copyOf(terms));
+    }
+
+    static MeiliFilter or(MeiliFilter... filters) {
+        return or(Arrays.asList(filters));
+    }
+
+    record Eq(String attribute, Object value) implements MeiliFilter {
+        @Override
+        public String render() {
+            return attribute + " = " + literal(value);
+        }
+
+        @Override
+        public boolean matches(Function<String, Object> attributes) {
+            return anyEquals(attributes.apply(attribute), value);
+        }
+    }
+
+    record In(String attribute, List<Object> values) implements MeiliFilter {
+        @Override
+        public String render() {
+            return values.stream().map(MeiliFilter::literal)
+                    .collect(Collectors.joining(", ", attribute + " IN [", "]"));
+        }
+
+        @Override
+        public boolean matches(Function<String, Object> attributes) {
+            Object actual = attributes.apply(attribute);
+            return values.stream().anyMatch(value -> anyEquals(actual, value));
+        }
+    }
+
+    /**
+     * A numeric bound on one or both sides; a null bound is open.
+     */
+    record Range(String attribute, Number min, boolean minInclusive, Number max, boolean maxInclusive)
+            implements MeiliFilter {
+        @Override
+        public String render() {
+            if (min != null && max != null && minInclusive && maxInclusive) {
+                return attribute + " " + min + " TO " + max;
+            }
+            String lower = min == null ? null : attribute + (minInclusive ? " >= " : " > ") + min;
+            String upper = max == null ? null : attribute + (maxInclusive ? " <= " : " < ") + max;
+            if (lower != null && upper != null) {
+                return lower + " AND " + upper;
+            }
+            return lower != null ? lower : upper;
+        }
+
+        @Override
+        public boolean matches(Function<String, Object> attributes) {
+            if (!(attributes.apply(attribute) instanceof Number number)) {
+                return false;
+            }
+            double actual = number.doubleValue();
+            if (min != null && (minInclusive ? actual < min.doubleValue() : actual <= min.doubleValue())) {
+                return false;
+            }
+            return max == null || (maxInclusive ? actual <= max.doubleValue() : actual < max.doubleValue());
+        }
+    }
+
+    record And(List<MeiliFilter> terms) implements MeiliFilter {
+        @Override
+        public String render() {
+            return terms.stream()
+                    .map(term -> term instanceof Or ? "(" + term.render() + ")" : term.render())
+                    .collect(Collectors.joining(" AND "));
+        }
+
+        @Override
+        public boolean matches(Function<String, Object> attributes) {
+            return terms.stream().allMatch(term -> term.matches(attributes));
+        }
+    }
+
+    record Or(List<MeiliFilter> terms) implements MeiliFilter {
+        @Override
+        public String render() {
+            return terms.stream()
+                    .map(term -> term instanceof And || term instanceof Range ? "(" + term.render() + ")" : term.render())
+                    .collect(Collectors.joining(" OR "));
+        }
+
+        @Override
+        public boolean matches(Function<String, Object> attributes) {
+            return terms.stream().anyMatch(term -> term.matches(attributes));
+        }
+    }
+
+    private static String literal(Object value) {
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        String text = String.valueOf(value).trim();
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static boolean anyEquals(Object actual, Object expected) {
+        if (actual instanceof Collection<?> elements) {
+            return elements.stream().anyMatch(element -> sameValue(element, expected));
+        }
+        return sameValue(actual, expected);
+    }
+
+    private static boolean sameValue(Object actual, Object expected) {
+        if (actual == null || expected == null) {
+            return false;
+        }
+        if (actual instanceof Number a && expected instanceof Number e) {
+            return Double.compare(a.doubleValue(), e.doubleValue()) == 0;
+        }
+        return String.valueOf(actual).trim().equalsIgnoreCase(String.valueOf(expected).trim());
+    }
+}
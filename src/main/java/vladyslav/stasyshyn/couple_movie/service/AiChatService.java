@@ -2,19 +2,19 @@ package vladyslav.stasyshyn.couple_movie.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import vladyslav.stasyshyn.couple_movie.entity.CoupleMovie;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
 import vladyslav.stasyshyn.couple_movie.entity.User;
 import vladyslav.stasyshyn.couple_movie.entity.UserFavorite;
+import vladyslav.stasyshyn.couple_movie.model.Genre;
 import vladyslav.stasyshyn.couple_movie.repository.CoupleMovieRepository;
 import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
 import vladyslav.stasyshyn.couple_movie.repository.UserFavoriteRepository;
 import vladyslav.stasyshyn.couple_movie.repository.UserRepository;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuard;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuardRegistry;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,38 +24,36 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AiChatService {
 
-    private final VectorStore vectorStore;
+    private final VectorSearchService vectorSearchService;
     private final MovieRepository movieRepository;
     private final UserFavoriteRepository userFavoriteRepository;
     private final CoupleMovieRepository coupleMovieRepository;
     private final UserRepository userRepository;
     private final ChatClient chatClient;
+    private final DependencyGuard gemini;
 
-    public AiChatService(VectorStore vectorStore,
+    public AiChatService(VectorSearchService vectorSearchService,
                          MovieRepository movieRepository,
                          UserFavoriteRepository userFavoriteRepository,
                          CoupleMovieRepository coupleMovieRepository,
                          UserRepository userRepository,
-                         ChatClient.Builder chatClientBuilder) {
-        this.vectorStore = vectorStore;
+                         ChatClient.Builder chatClientBuilder,
+                         DependencyGuardRegistry dependencyGuardRegistry) {
+        this.vectorSearchService = vectorSearchService;
         this.movieRepository = movieRepository;
         this.userFavoriteRepository = userFavoriteRepository;
         this.coupleMovieRepository = coupleMovieRepository;
         this.userRepository = userRepository;
         this.chatClient = chatClientBuilder.build();
+        this.gemini = dependencyGuardRegistry.guard("gemini");
     }
 
     public String generateChatResponse(String userMessage, User user) {
         log.info("Processing AI Chat request from user '{}': '{}'", user.getEmail(), userMessage);
 
         // 1. Perform semantic vector search - top 10 for richer context
-        List<Document> documents = vectorStore.similaritySearch(
-                SearchRequest.query(userMessage).withTopK(10)
-        );
-
-        List<String> imdbIds = documents.stream()
-                .map(doc -> (String) doc.getMetadata().get("imdb_id"))
-                .collect(Collectors.toList());
+        List<String> imdbIds = vectorSearchService.findSimilarImdbIds(
+                userMessage, VectorSearchService.QueryProfile.CHAT, 10);
 
         List<Movie> contextMovies = movieRepository.findByImdbIdIn(imdbIds);
 
@@ -82,10 +80,9 @@ public class AiChatService {
         // 4. Collect IMDb IDs that the user already has (favorites + couple list)
         Set<String> alreadyKnownIds = new HashSet<>();
         userFavoriteRepository.findImdbIdsByUser(user).forEach(alreadyKnownIds::add);
-        if (user.getPartnerId() != null) {
+        if (user.getPartnerId() != null && user.getCoupleId() != null) {
             try {
-                String coupleKey = CoupleMovie.buildCoupleKey(user.getId(), user.getPartnerId());
-                coupleMovieRepository.findByCoupleKey(coupleKey).forEach(cm -> alreadyKnownIds.add(cm.getImdbId()));
+                coupleMovieRepository.findByCoupleId(user.getCoupleId()).forEach(cm -> alreadyKnownIds.add(cm.getImdbId()));
             } catch (Exception ignored) {}
         }
 
@@ -168,17 +165,23 @@ public class AiChatService {
 
         String formattedSystemPrompt = String.format(systemPrompt, userProfile, newMovies.toString(), familiarMovies.toString());
 
-        // 5. Send to LLM
-        return chatClient.prompt()
+        // 5. Send to LLM, bounded by the Gemini guard's timeout and concurrency limit
+        return gemini.call(() -> chatClient.prompt()
                 .system(formattedSystemPrompt)
                 .user(userMessage)
                 .call()
-                .content();
+                .content(), e -> {
+            log.warn("Gemini unavailable for chat: {}", e.getMessage());
+            return "The Movie Concierge is taking a short intermission. Please try again in a minute!";
+        });
     }
 
     private String buildUserProfile(User user) {
         StringBuilder profile = new StringBuilder();
-        String currentUserName = user.getFirstName() != null ? user.getFirstName() : "User";
+        // The principal only carries the identity, the name comes from the current row
+        String currentUserName = userRepository.findById(user.getId())
+                .map(User::getFirstName)
+                .orElse("User");
         profile.append("Name: ").append(currentUserName).append("\n");
 
         // --- Favorites ---
@@ -215,20 +218,23 @@ public class AiChatService {
                 profile.append("\n");
             });
 
-            // Analyze genre preferences
-            Map<String, Long> genreCounts = favorites.stream()
-                    .filter(f -> f.getGenre() != null)
-                    .flatMap(f -> Arrays.stream(f.getGenre().split(",")))
-                    .map(String::trim)
-                    .filter(g -> !g.isEmpty())
-                    .collect(Collectors.groupingBy(g -> g, Collectors.counting()));
+            // Analyze genre preferences, counted per genre ID straight from the stored masks
+            int[] genreCounts = new int[Long.SIZE];
+            for (UserFavorite fav : favorites) {
+                long mask = fav.getGenreMask() != null ? fav.getGenreMask() : Genre.maskOf(fav.getGenre());
+                for (long rest = mask; rest != 0; rest &= rest - 1) {
+                    genreCounts[Long.numberOfTrailingZeros(rest)]++;
+                }
+            }
 
-            if (!genreCounts.isEmpty()) {
+            List<Genre> rankedGenres = Arrays.stream(Genre.values())
+                    .filter(g -> genreCounts[g.id()] > 0)
+                    .sorted(Comparator.comparingInt((Genre g) -> genreCounts[g.id()]).reversed())
+                    .limit(5)
+                    .toList();
+            if (!rankedGenres.isEmpty()) {
                 profile.append("\nFAVORITE GENRES (ranked): ");
-                genreCounts.entrySet().stream()
-                        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                        .limit(5)
-                        .forEach(e -> profile.append(e.getKey()).append(" (").append(e.getValue()).append("), "));
+                rankedGenres.forEach(g -> profile.append(g.label()).append(" (").append(genreCounts[g.id()]).append("), "));
                 profile.append("\n");
             }
         } else {
@@ -250,8 +256,10 @@ public class AiChatService {
             
             final String finalPartnerName = partnerName;
             try {
-                String coupleKey = CoupleMovie.buildCoupleKey(user.getId(), user.getPartnerId());
-                List<CoupleMovie> coupleMovies = coupleMovieRepository.findByCoupleKey(coupleKey);
+                // Users linked before the couples table existed have no couple ID until the backfill reaches them
+                List<CoupleMovie> coupleMovies = user.getCoupleId() != null
+                        ? coupleMovieRepository.findByCoupleId(user.getCoupleId())
+                        : List.of();
 
                 if (!coupleMovies.isEmpty()) {
                     long matches = coupleMovies.stream()
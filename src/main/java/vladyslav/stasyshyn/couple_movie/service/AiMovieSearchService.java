@@ -2,9 +2,6 @@ package vladyslav.stasyshyn.couple_movie.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -14,9 +11,9 @@ import vladyslav.stasyshyn.couple_movie.dto.SearchPageResponse;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
 import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
 
@@ -26,7 +23,7 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AiMovieSearchService {
 
-    private final VectorStore vectorStore;
+    private final VectorSearchService vectorSearchService;
     private final MovieRepository movieRepository;
 
     /**
@@ -38,18 +35,12 @@ public class AiMovieSearchService {
 
         // Fetch a large pool of contextual matches to allow deep sorting by popularity
         int poolSize = 1000;
-        
-        List<Document> documents = vectorStore.similaritySearch(
-                // We removed exact similarityThreshold because all-MiniLM-L6-v2 model 
-                // produces valid semantic matches that might have a distance score 
-                // lower than 0.70. Default will just return the closest nearest neighbors.
-                SearchRequest.query(query).withTopK(poolSize)
-        );
 
-        List<String> imdbIds = documents.stream()
-                .map(doc -> (String) doc.getMetadata().get("imdb_id"))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        // No similarityThreshold: all-MiniLM-L6-v2 produces valid semantic matches with
+        // distance scores below 0.70, so we just take the closest nearest neighbors.
+        // The query embedding is cached, so paging through the same query never re-embeds.
+        List<String> imdbIds = vectorSearchService.findSimilarImdbIds(
+                query, VectorSearchService.QueryProfile.SEARCH, poolSize);
 
         if (imdbIds.isEmpty()) {
             return new SearchPageResponse(List.of(), 0, page, size);
@@ -75,13 +66,7 @@ public class AiMovieSearchService {
         // Sort by hybrid score:
         // Position natively gives lower index = better relevance.
         // We can sort them to prioritize movies with substantial votes (e.g. >10,000) that are also semantically relevant.
-        validMovies.sort((m1, m2) -> {
-            long votes1 = parseVotes(m1.getImdbVotes());
-            long votes2 = parseVotes(m2.getImdbVotes());
-            
-            // To favor very popular movies within the semantically valid pool
-            return Long.compare(votes2, votes1); 
-        });
+        validMovies.sort(Comparator.comparingLong(AiMovieSearchService::votesOf).reversed());
 
         int start = Math.min(page * size, validMovies.size());
         int end = Math.min((page + 1) * size, validMovies.size());
@@ -95,12 +80,7 @@ public class AiMovieSearchService {
         );
     }
 
-    private long parseVotes(String votesStr) {
-        if (votesStr == null || votesStr.equalsIgnoreCase("N/A") || votesStr.isEmpty()) return 0L;
-        try {
-            return Long.parseLong(votesStr.replace(",", ""));
-        } catch (NumberFormatException e) {
-            return 0L;
-        }
+    private static long votesOf(Movie movie) {
+        return movie.getImdbVotesNum() != null ? movie.getImdbVotesNum() : 0L;
     }
 }
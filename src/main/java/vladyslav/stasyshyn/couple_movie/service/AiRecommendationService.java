@@ -1,9 +1,6 @@
 package vladyslav.stasyshyn.couple_movie.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -13,6 +10,7 @@ import vladyslav.stasyshyn.couple_movie.entity.CoupleMovie;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
 import vladyslav.stasyshyn.couple_movie.entity.User;
 import vladyslav.stasyshyn.couple_movie.entity.UserFavorite;
+import vladyslav.stasyshyn.couple_movie.model.Genre;
 import vladyslav.stasyshyn.couple_movie.repository.CoupleMovieRepository;
 import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
 import vladyslav.stasyshyn.couple_movie.repository.UserFavoriteRepository;
@@ -25,16 +23,22 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AiRecommendationService {
 
-    private final VectorStore vectorStore;
+    /**
+     * Neighbours fetched per seed. All of them already pass the filters, so this only needs
+     * enough headroom for the rating sort to pick a good top 4.
+     */
+    private static final int CANDIDATES_PER_SEED = 24;
+
+    private final VectorSearchService vectorSearchService;
     private final MovieRepository movieRepository;
     private final UserFavoriteRepository userFavoriteRepository;
     private final CoupleMovieRepository coupleMovieRepository;
 
-    public AiRecommendationService(VectorStore vectorStore,
+    public AiRecommendationService(VectorSearchService vectorSearchService,
                                    MovieRepository movieRepository,
                                    UserFavoriteRepository userFavoriteRepository,
                                    CoupleMovieRepository coupleMovieRepository) {
-        this.vectorStore = vectorStore;
+        this.vectorSearchService = vectorSearchService;
         this.movieRepository = movieRepository;
         this.userFavoriteRepository = userFavoriteRepository;
         this.coupleMovieRepository = coupleMovieRepository;
@@ -71,46 +75,28 @@ public class AiRecommendationService {
         for (Movie seed : seedMovies) {
             if (groups.size() >= targetGroups) break;
 
-            String queryText = buildQueryForSeed(seed);
-            List<Document> documents = vectorStore.similaritySearch(
-                    SearchRequest.query(queryText).withTopK(100)
-            );
+            long seedGenreMask = seed.getGenreMask() != null ? seed.getGenreMask() : Genre.maskOf(seed.getGenre());
+            boolean isSeedAnimation = Genre.ANIMATION.in(seedGenreMask);
+            List<String> seedGenres = Genre.labelsOf(seedGenreMask);
 
-            List<String> foundImdbIds = documents.stream()
-                    .map(doc -> (String) doc.getMetadata().get("imdb_id"))
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+            Set<String> excludedIds = new HashSet<>(knownImdbIds);
+            excludedIds.addAll(alreadyRecommendedIds);
 
-            List<Movie> validFoundMovies = movieRepository.findByImdbIdIn(foundImdbIds);
-            Map<String, Movie> movieMap = validFoundMovies.stream()
-                    .collect(Collectors.toMap(Movie::getImdbId, m -> m, (a, b) -> a));
-
-            List<Movie> candidates = new ArrayList<>();
-            boolean isSeedAnimation = seed.getGenre() != null && seed.getGenre().contains("Animation");
-            Set<String> seedGenres = extractGenres(seed.getGenre());
-
-            for (String id : foundImdbIds) {
-                if (knownImdbIds.contains(id) || alreadyRecommendedIds.contains(id) || !movieMap.containsKey(id)) {
-                    continue;
-                }
-                
-                Movie candidate = movieMap.get(id);
-                boolean isCandidateAnimation = candidate.getGenre() != null && candidate.getGenre().contains("Animation");
-
-                // Strict filter 1: Animation Bleed Prevention
-                if (isSeedAnimation != isCandidateAnimation) {
-                    continue;
-                }
-
-                // Strict filter 2: Genre overlap
-                Set<String> candidateGenres = extractGenres(candidate.getGenre());
-                candidateGenres.retainAll(seedGenres); // Intersection
-                if (candidateGenres.isEmpty() && !seedGenres.isEmpty()) {
-                    continue; // Must share at least one genre
-                }
-
-                candidates.add(candidate);
-            }
+            // Strict filters run in SQL next to the HNSW scan:
+            // 1. Animation bleed prevention, 2. at least one shared genre, 3. nothing known or already recommended
+            VectorSearchService.Filter filter = new VectorSearchService.Filter(
+                    seedGenres.isEmpty() ? null : seedGenres,
+                    isSeedAnimation,
+                    null,
+                    null,
+                    null,
+                    excludedIds);
+
+            String queryText = buildQueryForSeed(seed);
+            List<String> foundImdbIds = vectorSearchService.findSimilarImdbIds(
+                    queryText, filter, VectorSearchService.QueryProfile.RECOMMENDATIONS, CANDIDATES_PER_SEED);
+
+            List<Movie> candidates = new ArrayList<>(movieRepository.findByImdbIdIn(foundImdbIds));
 
             candidates.sort((m1, m2) -> {
                 double r1 = m1.getImdbRating() != null ? m1.getImdbRating() : 0.0;
@@ -164,15 +150,6 @@ public class AiRecommendationService {
         return seedIds;
     }
 
-    private Set<String> extractGenres(String genreString) {
-        if (genreString == null || genreString.equalsIgnoreCase("N/A") || genreString.isBlank()) {
-            return new HashSet<>();
-        }
-        return Arrays.stream(genreString.split(","))
-                .map(String::trim)
-                .collect(Collectors.toSet());
-    }
-
     private String buildQueryForSeed(Movie movie) {
         return String.format(
                 "Title: %s\nYear: %s\nGenres: %s\nDirector: %s\nActors: %s\nPlot: %s",
@@ -186,10 +163,9 @@ public class AiRecommendationService {
     }
 
     private List<CoupleMovie> getCoupleMovies(User user) {
-        if (user.getPartnerId() == null) return List.of();
+        if (user.getPartnerId() == null || user.getCoupleId() == null) return List.of();
         try {
-            String coupleKey = CoupleMovie.buildCoupleKey(user.getId(), user.getPartnerId());
-            return coupleMovieRepository.findByCoupleKey(coupleKey);
+            return coupleMovieRepository.findByCoupleId(user.getCoupleId());
         } catch (Exception e) {
             return List.of();
         }
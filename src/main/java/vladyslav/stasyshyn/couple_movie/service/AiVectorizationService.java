@@ -1,17 +1,29 @@
 package vladyslav.stasyshyn.couple_movie.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
 import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -26,6 +38,149 @@ public class AiVectorizationService {
     private final MovieRepository movieRepository;
     private final JdbcTemplate jdbcTemplate;
 
+    /**
+     * At most one index build per instance; the advisory lock taken by the build covers other instances.
+     */
+    private final AtomicBoolean indexBuildRunning = new AtomicBoolean();
+    private final ExecutorService indexBuildExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "vector-index-build"));
+
+    static final String VECTOR_INDEX_NAME = "vector_store_embedding_idx";
+    /**
+     * Name the replacement index is built under before it is swapped in.
+     */
+    static final String VECTOR_INDEX_BUILD_NAME = VECTOR_INDEX_NAME + "_build";
+    static final int EMBEDDING_DIMENSIONS = 384;
+
+    @Value("${app.ai.vector-index.m:16}")
+    private int hnswM;
+
+    @Value("${app.ai.vector-index.ef-construction:64}")
+    private int hnswEfConstruction;
+
+    /**
+     * Representation the HNSW index is built on. The full-precision column is always kept
+     * for re-ranking, only the index (the part that must stay in memory) shrinks.
+     */
+    @Value("${app.ai.vector-index.storage:FULL}")
+    private VectorStorage storage;
+
+    /**
+     * How many quantized candidates are fetched per requested result before re-ranking.
+     */
+    @Value("${app.ai.vector-index.rerank-factor:4}")
+    private int rerankFactor;
+
+    /**
+     * HNSW index representations of the 384-dim embeddings.
+     */
+    public enum VectorStorage {
+        /** float32 {@code vector}, ~1.5 KB per row. */
+        FULL("embedding vector_cosine_ops", "vector_cosine_ops",
+                "embedding <=> ?"),
+        /** float16 {@code halfvec}, half the index size with practically unchanged distances. */
+        HALF("(embedding::halfvec(" + EMBEDDING_DIMENSIONS + ")) halfvec_cosine_ops", "halfvec_cosine_ops",
+                "embedding::halfvec(" + EMBEDDING_DIMENSIONS + ") <=> ?::halfvec(" + EMBEDDING_DIMENSIONS + ")"),
+        /** One bit per dimension compared by Hamming distance, 32x smaller; needs re-ranking for good recall. */
+        BINARY("(binary_quantize(embedding)::bit(" + EMBEDDING_DIMENSIONS + ")) bit_hamming_ops", "bit_hamming_ops",
+                "binary_quantize(embedding)::bit(" + EMBEDDING_DIMENSIONS + ") <~> binary_quantize(?::vector)::bit(" + EMBEDDING_DIMENSIONS + ")");
+
+        private final String indexExpression;
+        private final String operatorClass;
+        private final String distanceExpression;
+
+        VectorStorage(String indexExpression, String operatorClass, String distanceExpression) {
+            this.indexExpression = indexExpression;
+            this.operatorClass = operatorClass;
+            this.distanceExpression = distanceExpression;
+        }
+
+        /**
+         * ORDER BY expression matching the index; its single placeholder takes the full-precision query vector.
+         */
+        public String distanceExpression() {
+            return distanceExpression;
+        }
+
+        public boolean needsRerank() {
+            return this != FULL;
+        }
+    }
+
+    public VectorStorage getStorage() {
+        return storage;
+    }
+
+    public int getRerankFactor() {
+        return Math.max(1, rerankFactor);
+    }
+
+    /**
+     * Structured filter columns derived from the document metadata written by {@link #createDocumentFromMovie}.
+     * Being generated columns, they stay in sync with every insert/upsert done by the vector store.
+     */
+    private static final String METADATA_COLUMNS = String.join(", ",
+            "ADD COLUMN IF NOT EXISTS genres text[] GENERATED ALWAYS AS (string_to_array(metadata->>'genres', ',')) STORED",
+            "ADD COLUMN IF NOT EXISTS start_year integer GENERATED ALWAYS AS ((metadata->>'start_year')::integer) STORED",
+            "ADD COLUMN IF NOT EXISTS movie_type text GENERATED ALWAYS AS (metadata->>'type') STORED",
+            "ADD COLUMN IF NOT EXISTS is_animation boolean GENERATED ALWAYS AS ((metadata->>'is_animation')::boolean) STORED");
+
+    /**
+     * Adds the filter columns to an existing vector_store and fills the metadata of rows
+     * embedded before they existed straight from the movies table, so no re-embedding is needed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureMetadataColumns() {
+        try {
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass('vector_store') IS NOT NULL", Boolean.class);
+            if (!Boolean.TRUE.equals(exists)) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE vector_store " + METADATA_COLUMNS);
+            createMetadataIndexes();
+
+            int migrated = jdbcTemplate.update(
+                    "UPDATE vector_store v SET metadata = v.metadata::jsonb || jsonb_strip_nulls(jsonb_build_object(" +
+                    "'genres', CASE WHEN m.genre IS NULL OR m.genre = 'N/A' THEN '' " +
+                    "ELSE regexp_replace(trim(m.genre), '\\s*,\\s*', ',', 'g') END, " +
+                    "'start_year', m.start_year, " +
+                    "'type', m.type, " +
+                    "'is_animation', coalesce(m.genre, '') LIKE '%Animation%')) " +
+                    "FROM movies m WHERE m.imdb_id = v.metadata->>'imdb_id' AND v.metadata::jsonb -> 'genres' IS NULL");
+            if (migrated > 0) {
+                log.info("AI: Added filter metadata to {} existing vector_store rows.", migrated);
+            }
+        } catch (Exception e) {
+            log.warn("AI: Failed to add filter metadata columns to vector_store.", e);
+        }
+    }
+
+    /**
+     * Migration path for an existing vector_store: when the HNSW index was built for another
+     * storage mode, it is rebuilt in the background through the same concurrent build-and-swap
+     * as the admin rebuild, so the old index keeps serving until the new one is ready. Rows need
+     * no change since the quantized forms are index expressions over the stored full-precision embeddings.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureVectorIndexStorage() {
+        try {
+            // The exact operator class: vector_cosine_ops is a substring of halfvec_cosine_ops in the definition
+            List<String> operatorClasses = jdbcTemplate.queryForList(
+                    "SELECT opc.opcname FROM pg_index i " +
+                    "JOIN pg_class c ON c.oid = i.indexrelid " +
+                    "JOIN pg_opclass opc ON opc.oid = i.indclass[0] " +
+                    "WHERE c.relname = ?", String.class, VECTOR_INDEX_NAME);
+            if (operatorClasses.isEmpty() || storage.operatorClass.equals(operatorClasses.get(0))) {
+                return;
+            }
+            if (rebuildVectorIndexAsync()) {
+                log.info("AI: HNSW index does not match storage mode {}, rebuilding it in the background.", storage);
+            }
+        } catch (Exception e) {
+            log.warn("AI: Failed to check the HNSW index storage mode.", e);
+        }
+    }
+
     /**
      * This will iterate over all movies in the database, convert them into AI Documents,
      * and save them to the pgvector database.
@@ -38,8 +193,9 @@ public class AiVectorizationService {
         try {
             jdbcTemplate.execute("DROP TABLE IF EXISTS vector_store");
             jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS vector");
-            jdbcTemplate.execute("CREATE TABLE vector_store (id uuid PRIMARY KEY, content text, metadata jsonb, embedding vector(384))");
-            jdbcTemplate.execute("CREATE INDEX ON vector_store USING HNSW (embedding vector_cosine_ops)");
+            jdbcTemplate.execute("CREATE TABLE vector_store (id uuid PRIMARY KEY, content text, metadata jsonb, embedding vector(" + EMBEDDING_DIMENSIONS + "))");
+            jdbcTemplate.execute("ALTER TABLE vector_store " + METADATA_COLUMNS);
+            createMetadataIndexes();
             log.info("Successfully dropped and recreated vector_store with 384 dimensions.");
         } catch (Exception e) {
             log.warn("Failed to recreate vector_store schema correctly.", e);
@@ -72,9 +228,86 @@ public class AiVectorizationService {
             pageNumber++;
         } while (page.hasNext());
 
+        // The HNSW graph is built once over the complete table instead of being updated on every insert
+        createVectorIndex();
+
         log.info("AI Vectorization backfill COMPLETE!");
     }
 
+    /**
+     * (Re)builds the HNSW index with the configured storage mode, {@code m} and {@code ef_construction}.
+     * Used after a backfill; fails if a build is already running.
+     */
+    public void createVectorIndex() {
+        if (!indexBuildRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("A vector index build is already running.");
+        }
+        try {
+            buildVectorIndex();
+        } finally {
+            indexBuildRunning.set(false);
+        }
+    }
+
+    /**
+     * Starts a rebuild of the HNSW index in the background.
+     *
+     * @return false if a build is already running on this instance
+     */
+    public boolean rebuildVectorIndexAsync() {
+        if (!indexBuildRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        indexBuildExecutor.execute(() -> {
+            try {
+                buildVectorIndex();
+            } catch (Exception e) {
+                log.error("AI: Failed to rebuild the HNSW index.", e);
+            } finally {
+                indexBuildRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    void stopIndexBuilds() {
+        indexBuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Builds the new index concurrently under a temporary name and only then swaps it for the old one,
+     * so neither writes are blocked nor searches left without an index while the graph is built.
+     * Runs on one connection holding an advisory lock, so two instances never build at once.
+     */
+    private void buildVectorIndex() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet locked = statement.executeQuery(
+                        "SELECT pg_try_advisory_lock(hashtext('" + VECTOR_INDEX_NAME + "'))")) {
+                    if (!locked.next() || !locked.getBoolean(1)) {
+                        log.info("AI: Another instance is building the HNSW index, skipping.");
+                        return null;
+                    }
+                }
+                try {
+                    long started = System.currentTimeMillis();
+                    log.info("AI: Building {} HNSW index (m={}, ef_construction={})...", storage, hnswM, hnswEfConstruction);
+                    // Leftover of an interrupted build; a failed CONCURRENTLY build leaves an invalid index behind
+                    statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + VECTOR_INDEX_BUILD_NAME);
+                    statement.execute("CREATE INDEX CONCURRENTLY " + VECTOR_INDEX_BUILD_NAME + " ON vector_store USING HNSW ("
+                            + storage.indexExpression + ") WITH (m = " + hnswM + ", ef_construction = " + hnswEfConstruction + ")");
+                    statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + VECTOR_INDEX_NAME);
+                    statement.execute("ALTER INDEX " + VECTOR_INDEX_BUILD_NAME + " RENAME TO " + VECTOR_INDEX_NAME);
+                    log.info("AI: HNSW index built in {} ms.", System.currentTimeMillis() - started);
+                } finally {
+                    statement.execute("SELECT pg_advisory_unlock(hashtext('" + VECTOR_INDEX_NAME + "'))");
+                }
+            }
+            return null;
+        });
+    }
+
     /**
      * Vectorizes a single movie and adds it to the vector store.
      * This is used during JIT synchronization when a new movie is discovered.
@@ -103,11 +336,24 @@ public class AiVectorizationService {
         );
 
         // Metadata is crucial so that when the AI finds this vector, we know WHICH movie it is!
-        Map<String, Object> metadata = Map.of(
-                "imdb_id", movie.getImdbId(),
-                "title", movie.getTitle(),
-                "year_val", movie.getYear() != null ? movie.getYear() : "N/A"
-        );
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("imdb_id", movie.getImdbId());
+        metadata.put("title", movie.getTitle());
+        metadata.put("year_val", movie.getYear() != null ? movie.getYear() : "N/A");
+
+        // Filter fields, surfaced as typed columns (genres, start_year, movie_type, is_animation)
+        String genre = movie.getGenre();
+        boolean hasGenre = genre != null && !genre.isBlank() && !genre.equalsIgnoreCase("N/A");
+        metadata.put("genres", hasGenre
+                ? Arrays.stream(genre.split(",")).map(String::trim).collect(Collectors.joining(","))
+                : "");
+        metadata.put("is_animation", hasGenre && genre.contains("Animation"));
+        if (movie.getStartYear() != null) {
+            metadata.put("start_year", movie.getStartYear());
+        }
+        if (movie.getType() != null) {
+            metadata.put("type", movie.getType());
+        }
 
         // Uses a UUID based on the IMDB string so it's deterministic and updates existing rows
         return new Document(
@@ -116,4 +362,10 @@ public class AiVectorizationService {
                 metadata
         );
     }
+
+    private void createMetadataIndexes() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS vector_store_genres_idx ON vector_store USING GIN (genres)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS vector_store_start_year_idx ON vector_store (start_year)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS vector_store_is_animation_idx ON vector_store (is_animation)");
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vladyslav.stasyshyn.couple_movie.config.JwtService;
+import vladyslav.stasyshyn.couple_movie.config.PrincipalCache;
 import vladyslav.stasyshyn.couple_movie.dto.*;
 import vladyslav.stasyshyn.couple_movie.entity.AuthToken;
 import vladyslav.stasyshyn.couple_movie.entity.User;
@@ -29,6 +30,7 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
+    private final PrincipalCache principalCache;
 
     @Transactional
     public String register(RegisterRequest request) {
@@ -97,6 +99,7 @@ public class AuthenticationService {
         User user = authToken.getUser();
         user.setVerified(true);
         repository.save(user);
+        principalCache.evict(user.getEmail());
 
         authTokenRepository.delete(authToken);
     }
@@ -168,21 +171,33 @@ public class AuthenticationService {
         User user = authToken.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
         repository.save(user);
+        principalCache.evict(user.getEmail());
 
         authTokenRepository.delete(authToken);
     }
 
+    /**
+     * The principal only carries the user's identity, so the profile is read from the current row.
+     */
+    @Transactional(readOnly = true)
+    public UserProfileResponse getProfile(User principal) {
+        return UserProfileResponse.fromUser(reload(principal));
+    }
+
     @Transactional
-    public UserProfileResponse updateProfile(User user, Map<String, String> request) {
+    public UserProfileResponse updateProfile(User principal, Map<String, String> request) {
+        User user = reload(principal);
         if (request.containsKey("avatar_url") && request.get("avatar_url") != null) {
             user.setAvatarUrl(request.get("avatar_url"));
         }
         repository.save(Objects.requireNonNull(user));
+        principalCache.evict(user.getEmail());
         return UserProfileResponse.fromUser(user);
     }
 
     @Transactional
-    public void updatePassword(User user, UpdatePasswordRequest request) {
+    public void updatePassword(User principal, UpdatePasswordRequest request) {
+        User user = reload(principal);
         if (request.currentPassword() == null || request.newPassword() == null
                 || request.newPassword().isBlank()) {
             throw new IllegalArgumentException("Current password and new password are required");
@@ -198,5 +213,11 @@ public class AuthenticationService {
 
         user.setPassword(passwordEncoder.encode(request.newPassword()));
         repository.save(user);
+        principalCache.evict(user.getEmail());
+    }
+
+    private User reload(User principal) {
+        return repository.findById(principal.getId())
+                .orElseThrow(() -> new UnauthorizedException("User not found"));
     }
 }
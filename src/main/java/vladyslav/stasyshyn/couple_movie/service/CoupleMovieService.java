@@ -2,15 +2,20 @@ package vladyslav.stasyshyn.couple_movie.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vladyslav.stasyshyn.couple_movie.repository.CoupleMovieRepository;
 import vladyslav.stasyshyn.couple_movie.model.WatchStatus;
-import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
+import vladyslav.stasyshyn.couple_movie.repository.projection.CoupleMembership;
+import vladyslav.stasyshyn.couple_movie.repository.projection.CoupleMovieUpsertResult;
+import vladyslav.stasyshyn.couple_movie.repository.projection.CoupleStats;
 import vladyslav.stasyshyn.couple_movie.entity.CoupleMovie;
-import vladyslav.stasyshyn.couple_movie.entity.Movie;
 import vladyslav.stasyshyn.couple_movie.entity.User;
 import vladyslav.stasyshyn.couple_movie.dto.CoupleMovieResponse;
+import vladyslav.stasyshyn.couple_movie.dto.CursorPageResponse;
+import vladyslav.stasyshyn.couple_movie.dto.KeysetCursor;
 import vladyslav.stasyshyn.couple_movie.dto.GetStatusResponse;
 
 import java.util.stream.Collectors;
@@ -25,169 +30,162 @@ import vladyslav.stasyshyn.couple_movie.exception.ResourceNotFoundException;
 @RequiredArgsConstructor
 public class CoupleMovieService {
 
+    /**
+     * Cache key of the membership snapshot, the couple ID of the calling user.
+     */
+    private static final String COUPLE_MEMBERSHIP_KEY = "#user.coupleId";
+
     private final CoupleMovieRepository coupleMovieRepository;
-    private final MovieRepository movieRepository;
 
-    private String getCoupleKey(User user) {
-        if (user.getPartnerId() == null) {
+    private Long getCoupleId(User user) {
+        if (user.getPartnerId() == null || user.getCoupleId() == null) {
             throw new IllegalStateException("You don't have a partner.");
         }
-        return CoupleMovie.buildCoupleKey(user.getId(), user.getPartnerId());
+        return user.getCoupleId();
     }
 
     @Transactional(readOnly = true)
     public List<CoupleMovieResponse> getSharedMovies(User user) {
-        String coupleKey = getCoupleKey(user);
-        var movies = coupleMovieRepository.findByCoupleKeyWithDetails(coupleKey, user.getId());
+        Long coupleId = getCoupleId(user);
+        var movies = coupleMovieRepository.findByCoupleIdWithDetails(coupleId, user.getId());
 
         return movies.stream().map(CoupleMovieResponse::fromProjection).collect(Collectors.toList());
     }
 
+    /**
+     * Keyset-paginated shared list, newest first, with optional watch status, genre and matches-only filters.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CoupleMovieResponse> getSharedMoviesPage(User user, String cursor, Integer limit,
+                                                                       String watchStatus, String genre,
+                                                                       boolean matchesOnly) {
+        Long coupleId = getCoupleId(user);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPaging.pageSize(limit);
+
+        // One extra row tells whether another page exists
+        var rows = coupleMovieRepository.findPageByCoupleIdWithDetails(coupleId, user.getId(),
+                after.isUndated(), after.seekCreatedAt(), after.id(),
+                KeysetPaging.watchStatus(watchStatus), KeysetPaging.genre(genre), matchesOnly, pageSize + 1);
+
+        return KeysetPaging.page(rows, pageSize, CoupleMovieResponse::fromProjection);
+    }
+
     @Transactional(readOnly = true)
     public List<String> getMyAddedMovieIds(User user) {
         if (user.getPartnerId() == null) {
             return List.of();
         }
-        String coupleKey = getCoupleKey(user);
-        return coupleMovieRepository.findMyAddedImdbIds(coupleKey, user.getId());
+        Long coupleId = getCoupleId(user);
+        return coupleMovieRepository.findMyAddedImdbIds(coupleId, user.getId());
+    }
+
+    /**
+     * IMDb ID -> membership state of every movie in the couple's shared list; the in-memory set behind membership checks.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "coupleMembership", key = "#coupleId")
+    public Map<String, CoupleEntry> getCoupleEntries(Long coupleId) {
+        Map<String, CoupleEntry> entries = new HashMap<>();
+        for (CoupleMembership row : coupleMovieRepository.findMembershipByCoupleId(coupleId)) {
+            entries.put(row.getImdbId(), new CoupleEntry(
+                    row.getAddedByUserId(), row.getUserYouAdded(), row.getPartnerAdded(), row.getWatchStatus()));
+        }
+        return Collections.unmodifiableMap(entries);
     }
 
     @Transactional
-    @CacheEvict(value = "recommendations", key = "#user.id")
+    @Caching(evict = {
+            @CacheEvict(value = "recommendations", key = "#user.id"),
+            @CacheEvict(value = "coupleMembership", key = COUPLE_MEMBERSHIP_KEY)
+    })
     public AddMovieResponse addMovie(User user, Map<String, Object> movieData) {
-        String coupleKey = getCoupleKey(user);
+        Long coupleId = getCoupleId(user);
         String imdbId = movieData.get("imdb_id") != null ? String.valueOf(movieData.get("imdb_id")) : null;
 
         if (imdbId == null || imdbId.isBlank()) {
             throw new IllegalArgumentException("imdb_id is required");
         }
 
-        var existing = coupleMovieRepository.findByCoupleKeyAndImdbId(coupleKey, imdbId);
-        CoupleMovie movieToAdd;
-
-        if (existing.isPresent()) {
-            movieToAdd = existing.get();
-            if (movieToAdd.getAddedByUserId().equals(user.getId())) {
-                movieToAdd.setUserYouAdded(true);
-            } else {
-                movieToAdd.setPartnerAdded(true);
-            }
-        } else {
-            Movie newMovieToAdd = movieRepository.findById(imdbId).orElse(null);
-
-            movieToAdd = CoupleMovie.builder()
-                    .coupleKey(coupleKey)
-                    .imdbId(imdbId)
-                    .title(newMovieToAdd != null && newMovieToAdd.getTitle() != null ? newMovieToAdd.getTitle() : "")
-                    .poster(newMovieToAdd != null && newMovieToAdd.getPoster() != null ? newMovieToAdd.getPoster() : "")
-                    .year(newMovieToAdd != null && newMovieToAdd.getYear() != null ? newMovieToAdd.getYear() : "")
-                    .genre(newMovieToAdd != null && newMovieToAdd.getGenre() != null ? newMovieToAdd.getGenre() : "")
-                    .addedByUserId(user.getId())
-                    .userYouAdded(true)
-                    .partnerAdded(false)
-                    .user1Id(user.getId())
-                    .build();
-        }
-
-        coupleMovieRepository.save(Objects.requireNonNull(movieToAdd));
+        // Insert-or-flag in one statement, so simultaneous adds by both partners cannot collide
+        CoupleMovieUpsertResult added = coupleMovieRepository.upsertAdded(coupleId, imdbId, user.getId());
 
         return new AddMovieResponse(
-                movieToAdd.getId(),
-                movieToAdd.getImdbId(),
-                movieToAdd.getTitle(),
+                added.getId(),
+                added.getImdbId(),
+                added.getTitle(),
                 "Added to shared favorites");
     }
 
     @Transactional
-    @CacheEvict(value = "recommendations", key = "#user.id")
+    @Caching(evict = {
+            @CacheEvict(value = "recommendations", key = "#user.id"),
+            @CacheEvict(value = "coupleMembership", key = COUPLE_MEMBERSHIP_KEY)
+    })
     public void removeMovie(User user, String imdbId) {
-        String coupleKey = getCoupleKey(user);
-        coupleMovieRepository.deleteByCoupleKeyAndImdbId(coupleKey, imdbId);
+        Long coupleId = getCoupleId(user);
+        coupleMovieRepository.deleteByCoupleIdAndImdbId(coupleId, imdbId);
     }
 
     @Transactional
+    @CacheEvict(value = "coupleMembership", key = COUPLE_MEMBERSHIP_KEY)
     public UpdateMovieStatusResponse updateMovieStatus(User user, String imdbId, Map<String, Object> body) {
-        String coupleKey = getCoupleKey(user);
-
-        CoupleMovie movie = coupleMovieRepository.findByCoupleKeyAndImdbId(coupleKey, imdbId)
-                .orElseThrow(() -> new ResourceNotFoundException("Movie not found in shared list"));
+        Long coupleId = getCoupleId(user);
 
+        // Targeted single-row UPDATEs: slot decisions are made by the database on the locked row
+        String status = null;
         if (body.containsKey("watch_status")) {
             WatchStatus newStatus = WatchStatus.valueOf(String.valueOf(body.get("watch_status")));
-            movie.setWatchStatus(newStatus);
-            if (newStatus == WatchStatus.WATCHLIST) {
-                if (movie.getUser1Id() != null && movie.getUser1Id().equals(user.getId())) {
-                    movie.setUser1Rating(null);
-                } else if (movie.getUser2Id() != null && movie.getUser2Id().equals(user.getId())) {
-                    movie.setUser2Rating(null);
-                }
-            }
+            status = coupleMovieRepository.updateWatchStatus(coupleId, imdbId, user.getId(), newStatus.name(),
+                            newStatus == WatchStatus.WATCHLIST)
+                    .orElseThrow(() -> new ResourceNotFoundException("Movie not found in shared list"));
         }
 
         if (body.containsKey("rating")) {
             double rating = Double.parseDouble(String.valueOf(body.get("rating")));
-            if (movie.getUser1Id() != null && movie.getUser1Id().equals(user.getId())) {
-                movie.setUser1Rating(rating);
-            } else if (movie.getUser2Id() != null && movie.getUser2Id().equals(user.getId())) {
-                movie.setUser2Rating(rating);
-            } else if (movie.getUser1Id() == null) {
-                movie.setUser1Id(user.getId());
-                movie.setUser1Rating(rating);
-            } else {
-                movie.setUser2Id(user.getId());
-                movie.setUser2Rating(rating);
-            }
+            status = coupleMovieRepository.rateInSlot(coupleId, imdbId, user.getId(), rating)
+                    .orElseThrow(() -> new ResourceNotFoundException("Movie not found in shared list"));
         }
 
-        coupleMovieRepository.save(movie);
+        WatchStatus watchStatus;
+        if (body.containsKey("watch_status") || body.containsKey("rating")) {
+            watchStatus = toWatchStatus(status);
+        } else {
+            watchStatus = coupleMovieRepository.findByCoupleIdAndImdbId(coupleId, imdbId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Movie not found in shared list"))
+                    .getWatchStatus();
+        }
 
         return new UpdateMovieStatusResponse(
-                movie.getImdbId(),
-                movie.getWatchStatus(),
+                imdbId,
+                watchStatus,
                 "Updated successfully");
     }
 
     @Transactional(readOnly = true)
     public GetStatusResponse getStats(User user) {
-        String coupleKey = getCoupleKey(user);
-        List<CoupleMovie> allMovies = coupleMovieRepository.findByCoupleKey(coupleKey);
-
-        int matches = (int) allMovies.stream().filter(m -> m.isUserYouAdded() && m.isPartnerAdded()).count();
-        int watchlist = (int) allMovies.stream().filter(m -> WatchStatus.WATCHLIST == m.getWatchStatus()).count();
-        int watched = (int) allMovies.stream().filter(m -> WatchStatus.WATCHED == m.getWatchStatus()).count();
+        Long coupleId = getCoupleId(user);
+        CoupleStats stats = coupleMovieRepository.getStats(coupleId);
 
         return new GetStatusResponse(
-                matches,
-                watchlist,
-                watched);
+                (int) stats.getMatches(),
+                (int) stats.getWatchlist(),
+                (int) stats.getWatched());
     }
 
     @Transactional
+    @CacheEvict(value = "coupleMembership", key = COUPLE_MEMBERSHIP_KEY)
     public RateMovieResponse rateMovie(User user, String imdbId, Map<String, Object> body) {
         double rating = Double.parseDouble(String.valueOf(body.get("rating")));
-        String coupleKey = getCoupleKey(user);
+        Long coupleId = getCoupleId(user);
 
-        CoupleMovie movie = coupleMovieRepository.findByCoupleKeyAndImdbId(coupleKey, imdbId)
+        String status = coupleMovieRepository.rateInSlot(coupleId, imdbId, user.getId(), rating)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found in shared list"));
 
-        if (movie.getUser1Id() != null && movie.getUser1Id().equals(user.getId())) {
-            movie.setUser1Rating(rating);
-        } else if (movie.getUser2Id() != null && movie.getUser2Id().equals(user.getId())) {
-            movie.setUser2Rating(rating);
-        } else if (movie.getUser1Id() == null) {
-            movie.setUser1Id(user.getId());
-            movie.setUser1Rating(rating);
-        } else {
-            movie.setUser2Id(user.getId());
-            movie.setUser2Rating(rating);
-        }
-
-        coupleMovieRepository.save(movie);
-
         return new RateMovieResponse(
-                movie.getImdbId(),
+                imdbId,
                 rating,
-                movie.getWatchStatus(),
+                toWatchStatus(status),
                 "Rated successfully");
     }
 
@@ -197,8 +195,8 @@ public class CoupleMovieService {
             return false;
         }
 
-        String coupleKey = getCoupleKey(user);
-        var opt = coupleMovieRepository.findByCoupleKeyAndImdbId(coupleKey, imdbId);
+        Long coupleId = getCoupleId(user);
+        var opt = coupleMovieRepository.findByCoupleIdAndImdbId(coupleId, imdbId);
         if (opt.isEmpty()) {
             return false;
         }
@@ -208,4 +206,22 @@ public class CoupleMovieService {
                 ? movie.isUserYouAdded()
                 : movie.isPartnerAdded();
     }
+
+    private static WatchStatus toWatchStatus(String status) {
+        return status != null ? WatchStatus.valueOf(status) : WatchStatus.WATCHLIST;
+    }
+
+    /**
+     * A shared-list row as seen by membership checks.
+     */
+    public record CoupleEntry(Long addedByUserId, boolean userYouAdded, boolean partnerAdded, WatchStatus watchStatus) {
+
+        public boolean isAddedBy(Long userId) {
+            return addedByUserId != null && addedByUserId.equals(userId) ? userYouAdded : partnerAdded;
+        }
+
+        public boolean isMatch() {
+            return userYouAdded && partnerAdded;
+        }
+    }
 }
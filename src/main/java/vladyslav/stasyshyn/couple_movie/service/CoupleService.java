@@ -3,9 +3,11 @@ package vladyslav.stasyshyn.couple_movie.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vladyslav.stasyshyn.couple_movie.config.PrincipalCache;
 import vladyslav.stasyshyn.couple_movie.entity.CoupleRequest;
 import vladyslav.stasyshyn.couple_movie.entity.User;
 import vladyslav.stasyshyn.couple_movie.model.RequestStatus;
+import vladyslav.stasyshyn.couple_movie.repository.CoupleRepository;
 import vladyslav.stasyshyn.couple_movie.repository.CoupleRequestRepository;
 import vladyslav.stasyshyn.couple_movie.repository.UserRepository;
 
@@ -18,10 +20,13 @@ import java.util.Optional;
 public class CoupleService {
 
     private final CoupleRequestRepository coupleRequestRepository;
+    private final CoupleRepository coupleRepository;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Transactional
-    public CoupleRequest sendInvite(User sender, String receiverUsername) {
+    public CoupleRequest sendInvite(User principal, String receiverUsername) {
+        User sender = reload(principal);
         if (sender.getPartnerId() != null) {
             throw new IllegalStateException("You already have a partner.");
         }
@@ -54,7 +59,8 @@ public class CoupleService {
     }
 
     @Transactional
-    public void acceptInvite(User receiver, Long requestId) {
+    public void acceptInvite(User principal, Long requestId) {
+        User receiver = reload(principal);
         CoupleRequest request = coupleRequestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Request not found"));
 
@@ -66,12 +72,19 @@ public class CoupleService {
         }
 
         User sender = request.getSender();
+        // A pair that was linked before gets its old couple (and shared list) back
+        Long coupleId = coupleRepository.findOrCreateId(
+                Math.min(sender.getId(), receiver.getId()), Math.max(sender.getId(), receiver.getId()));
 
         sender.setPartnerId(receiver.getId());
+        sender.setCoupleId(coupleId);
         receiver.setPartnerId(sender.getId());
+        receiver.setCoupleId(coupleId);
 
         userRepository.save(sender);
         userRepository.save(receiver);
+        principalCache.evict(sender.getEmail());
+        principalCache.evict(receiver.getEmail());
 
         request.setStatus(RequestStatus.ACCEPTED);
         coupleRequestRepository.save(request);
@@ -102,7 +115,8 @@ public class CoupleService {
     }
 
     @Transactional
-    public void breakCouple(User user) {
+    public void breakCouple(User principal) {
+        User user = reload(principal);
         if (user.getPartnerId() == null) {
             throw new IllegalStateException("You don't have a partner to unlink.");
         }
@@ -111,9 +125,13 @@ public class CoupleService {
                 .orElseThrow(() -> new IllegalStateException("Partner not found."));
 
         user.setPartnerId(null);
+        user.setCoupleId(null);
         partner.setPartnerId(null);
+        partner.setCoupleId(null);
         userRepository.save(user);
         userRepository.save(partner);
+        principalCache.evict(user.getEmail());
+        principalCache.evict(partner.getEmail());
 
         coupleRequestRepository.findByUserAndStatus(user.getId(), user.getEmail(), RequestStatus.ACCEPTED)
                 .forEach(req -> {
@@ -121,4 +139,12 @@ public class CoupleService {
                     coupleRequestRepository.save(req);
                 });
     }
+
+    /**
+     * The authenticated principal is a cached identity stub; writes go through the current row.
+     */
+    private User reload(User principal) {
+        return userRepository.findById(principal.getId())
+                .orElseThrow(() -> new IllegalStateException("User not found."));
+    }
 }
@@ -2,17 +2,24 @@ package vladyslav.stasyshyn.couple_movie.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vladyslav.stasyshyn.couple_movie.entity.MailOutbox;
+import vladyslav.stasyshyn.couple_movie.repository.MailOutboxRepository;
 
+import java.time.LocalDateTime;
+
+/**
+ * Composes outgoing emails and writes them to the mail outbox. Nothing here talks to SMTP;
+ * {@link MailDispatcher} delivers the messages after the calling transaction has committed.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final MailOutboxRepository mailOutboxRepository;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
@@ -21,48 +28,45 @@ public class EmailService {
     private String frontendUrl;
 
     public void sendVerificationEmail(String to, String token) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject("CoupleMovie - Verify your email");
-
-            String verificationUrl = frontendUrl + "/verify-email?token=" + token;
-
-            message.setText("""
-                    Welcome to CoupleMovie!
-                    
-                    Please click the link below to verify your email address:
-                    %s
-                    
-                    Thank you!""".formatted(verificationUrl));
+        String verificationUrl = frontendUrl + "/verify-email?token=" + token;
 
-            mailSender.send(message);
-        } catch (Exception e) {
-            log.error("Failed to send verification email to {}", to, e);
-        }
+        enqueue(fromEmail, to, null, "CoupleMovie - Verify your email", """
+                Welcome to CoupleMovie!
+                
+                Please click the link below to verify your email address:
+                %s
+                
+                Thank you!""".formatted(verificationUrl));
     }
 
     public void sendPasswordResetEmail(String to, String token) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject("CoupleMovie - Password Reset Request");
+        String resetUrl = frontendUrl + "/reset-password?token=" + token;
 
-            String resetUrl = frontendUrl + "/reset-password?token=" + token;
-
-            message.setText("""
-                    You have requested to reset your password.
-                    
-                    Please click the link below to set a new password:
-                    %s
-                    
-                    If you did not request this, please ignore this email.""".formatted(resetUrl));
+        enqueue(fromEmail, to, null, "CoupleMovie - Password Reset Request", """
+                You have requested to reset your password.
+                
+                Please click the link below to set a new password:
+                %s
+                
+                If you did not request this, please ignore this email.""".formatted(resetUrl));
+    }
 
-            mailSender.send(message);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to {}", to, e);
-        }
+    /**
+     * Stores a message for delivery. Joins the caller's transaction, so the mail is only sent
+     * if the change that triggered it commits.
+     */
+    @Transactional
+    public MailOutbox enqueue(String from, String to, String replyTo, String subject, String body) {
+        MailOutbox mail = MailOutbox.builder()
+                .sender(from)
+                .recipient(to)
+                .replyTo(replyTo)
+                .subject(subject)
+                .body(body)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        MailOutbox saved = mailOutboxRepository.save(mail);
+        log.debug("Queued email '{}' to {} (outbox id {})", subject, to, saved.getId());
+        return saved;
     }
 }
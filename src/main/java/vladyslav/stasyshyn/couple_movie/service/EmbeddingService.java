@@ -0,0 +1,295 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.transformers.TransformersEmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import vladyslav.stasyshyn.couple_movie.dto.EmbeddingStatsResponse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedding layer in front of the local ONNX transformer model.
+ * The model is warmed up while the context starts, so the first search after a deploy
+ * does not pay for initialization. Single-text calls from concurrent requests are queued
+ * and drained by a pool of inference workers (one per CPU core by default), each of which
+ * sends whatever is waiting as one tensor batch. Callers wait for their vector at most
+ * {@code app.ai.embedding.timeout-ms}, and are failed rather than left waiting on shutdown.
+ * Results are kept in a bounded LRU cache keyed by model ID and normalized text, so repeated
+ * queries (paging through AI search, re-used recommendation seeds) never re-embed.
+ * Marked {@code @Primary} so the pgvector store embeds its queries through this path too.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "app.ai.enabled", havingValue = "true", matchIfMissing = false)
+@Slf4j
+public class EmbeddingService implements EmbeddingModel {
+
+    private final TransformersEmbeddingModel delegate;
+    private final int poolSize;
+    private final int maxBatchSize;
+    private final String modelId;
+    private final int cacheSize;
+    private final long timeoutMs;
+    private final Map<String, float[]> cache;
+
+    private final BlockingQueue<PendingEmbedding> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService workers;
+    private volatile boolean stopped;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private volatile long warmUpMillis = -1;
+
+    public EmbeddingService(TransformersEmbeddingModel delegate,
+                            @Value("${app.ai.embedding.pool-size:0}") int poolSize,
+                            @Value("${app.ai.embedding.max-batch-size:32}") int maxBatchSize,
+                            @Value("${app.ai.embedding.model-id:all-MiniLM-L6-v2}") String modelId,
+                            @Value("${app.ai.embedding.cache-size:10000}") int cacheSize,
+                            @Value("${app.ai.embedding.timeout-ms:10000}") long timeoutMs) {
+        this.delegate = delegate;
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.modelId = modelId;
+        this.cacheSize = Math.max(0, cacheSize);
+        this.timeoutMs = timeoutMs;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > EmbeddingService.this.cacheSize;
+            }
+        };
+
+        // Inference is CPU-bound, so these are platform threads rather than virtual ones
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "embedding-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void start() {
+        long started = System.nanoTime();
+        try {
+            delegate.embed(List.of("CoupleMovie embedding warm-up"));
+            warmUpMillis = (System.nanoTime() - started) / 1_000_000;
+            log.info("AI: Embedding model warmed up in {} ms ({} inference workers, max batch {}).",
+                    warmUpMillis, poolSize, maxBatchSize);
+        } catch (Exception e) {
+            log.warn("AI: Embedding model warm-up failed, first request will initialize it.", e);
+        }
+
+        for (int i = 0; i < poolSize; i++) {
+            workers.submit(this::runWorker);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        workers.shutdownNow();
+        failQueued();
+    }
+
+    /**
+     * Completes the requests no worker will take any more, so their callers do not wait out the timeout.
+     */
+    private void failQueued() {
+        List<PendingEmbedding> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        IllegalStateException shutdown = new IllegalStateException("Embedding service is shutting down");
+        abandoned.forEach(pending -> pending.result().completeExceptionally(shutdown));
+    }
+
+    /**
+     * Embeds a single text, served from the LRU cache when the same normalized text was seen before.
+     * The returned array is shared with the cache and must not be modified.
+     */
+    public float[] embedVector(String text) {
+        String key = cacheKey(text);
+        float[] cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+
+        float[] vector = embedUncached(text);
+        if (cacheSize > 0) {
+            synchronized (cache) {
+                cache.put(key, vector);
+            }
+        }
+        return vector;
+    }
+
+    private float[] embedUncached(String text) {
+        PendingEmbedding pending = new PendingEmbedding(text, System.nanoTime(), new CompletableFuture<>());
+        requests.increment();
+        queue.add(pending);
+        if (stopped) {
+            // Raced with stop(): the drain may have missed this request
+            failQueued();
+        }
+        try {
+            return pending.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for embedding", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to embed text", e.getCause());
+        } catch (TimeoutException e) {
+            queue.remove(pending);
+            throw new IllegalStateException("Timed out after " + timeoutMs + " ms waiting for embedding", e);
+        }
+    }
+
+    @Override
+    public List<Double> embed(String text) {
+        float[] vector = embedVector(text);
+        List<Double> result = new ArrayList<>(vector.length);
+        for (float value : vector) {
+            result.add((double) value);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Double> embed(Document document) {
+        return delegate.embed(document);
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        // Multi-text requests (vector store inserts) are already a batch
+        return delegate.call(request);
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    public EmbeddingStatsResponse getStats() {
+        long batchCount = batches.sum();
+        long completedCount = completed.sum();
+        long hits = cacheHits.sum();
+        long lookups = hits + cacheMisses.sum();
+        int cachedEntries;
+        synchronized (cache) {
+            cachedEntries = cache.size();
+        }
+        return new EmbeddingStatsResponse(
+                poolSize,
+                maxBatchSize,
+                queue.size(),
+                requests.sum(),
+                batchCount,
+                failures.sum(),
+                batchCount > 0 ? (double) completedCount / batchCount : 0.0,
+                completedCount > 0 ? totalLatencyNanos.sum() / 1_000_000.0 / completedCount : 0.0,
+                maxLatencyNanos.get() / 1_000_000.0,
+                warmUpMillis,
+                cachedEntries,
+                cacheSize,
+                hits,
+                lookups - hits,
+                lookups > 0 ? (double) hits / lookups : 0.0);
+    }
+
+    /**
+     * The MiniLM tokenizer is uncased, so case and surrounding/duplicate whitespace do not change the vector.
+     */
+    private String cacheKey(String text) {
+        String normalized = text == null ? "" : text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return modelId + '\n' + normalized;
+    }
+
+    private void runWorker() {
+        List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatchSize - 1);
+                embedBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                // Keep the worker alive; a dead one would leave the queue to the others, or to no one
+                log.error("AI: Embedding worker failed on a batch of {} texts.", batch.size(), t);
+                failures.add(batch.size());
+                batch.forEach(pending -> pending.result().completeExceptionally(t));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void embedBatch(List<PendingEmbedding> batch) {
+        try {
+            List<List<Double>> vectors = delegate.embed(batch.stream().map(PendingEmbedding::text).toList());
+            long now = System.nanoTime();
+            for (int i = 0; i < batch.size(); i++) {
+                PendingEmbedding pending = batch.get(i);
+                recordLatency(now - pending.enqueuedAt());
+                pending.result().complete(toFloatArray(vectors.get(i)));
+            }
+            batches.increment();
+        } catch (Exception e) {
+            log.error("AI: Embedding batch of {} texts failed.", batch.size(), e);
+            failures.add(batch.size());
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        completed.increment();
+        totalLatencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static float[] toFloatArray(List<Double> values) {
+        float[] vector = new float[values.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = values.get(i).floatValue();
+        }
+        return vector;
+    }
+
+    private record PendingEmbedding(String text, long enqueuedAt, CompletableFuture<float[]> result) {
+    }
+}
@@ -1,33 +1,178 @@
 package vladyslav.stasyshyn.couple_movie.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import vladyslav.stasyshyn.couple_movie.entity.EmotionGenreMap;
+import vladyslav.stasyshyn.couple_movie.model.Genre;
 import vladyslav.stasyshyn.couple_movie.repository.EmotionGenreMapRepository;
+import vladyslav.stasyshyn.couple_movie.search.MeiliFilter;
 
+import java.time.Year;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Emotion-to-genre mappings, served from an immutable in-memory snapshot.
+ * The table almost never changes, so it is loaded once and re-read on a schedule; the snapshot
+ * is only replaced when its content differs. Every emotion's Meilisearch filter clause is built
+ * at load time, and combined filters are memoized per snapshot, so filtering by emotion
+ * does no database queries and little string work.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class EmotionGenreService {
 
+    private static final String NOSTALGIC = "nostalgic";
+    private static final int MAX_MEMOIZED_FILTERS = 1024;
+
     private final EmotionGenreMapRepository repository;
 
-    @Transactional(readOnly = true)
+    private volatile Snapshot snapshot;
+
     public List<String> getGenresForEmotion(String emotion) {
-        try {
-            Optional<EmotionGenreMap> mapping = repository.findByEmotion(emotion.toLowerCase());
-            return mapping.map(EmotionGenreMap::getGenres).orElse(Collections.emptyList());
-        } catch (Exception e) {
+        if (emotion == null) {
             return Collections.emptyList();
         }
+        return current().genresByEmotion().getOrDefault(normalize(emotion), Collections.emptyList());
     }
 
-    @Transactional(readOnly = true)
     public List<EmotionGenreMap> getAllMappings() {
-        return repository.findAll();
+        return current().mappings();
+    }
+
+    /**
+     * The Meilisearch filter for a genre/emotion/awarded combination: the genre clause, one clause per
+     * emotion ("nostalgic" being a rating/age rule), then the award flag, all ANDed with duplicates dropped.
+     * Emotions without mapped genres add nothing, so the result may be empty.
+     */
+    public String buildFilter(List<String> genres, List<String> emotions, boolean awarded) {
+        return buildFilterTree(genres, emotions, awarded).render();
+    }
+
+    /**
+     * The filter of {@link #buildFilter} as a tree, for evaluation outside Meilisearch.
+     */
+    public MeiliFilter buildFilterTree(List<String> genres, List<String> emotions, boolean awarded) {
+        List<String> genreKey = genres == null ? List.of() : genres.stream().map(String::trim).toList();
+        List<String> emotionKey = emotions == null ? List.of() : emotions.stream().map(EmotionGenreService::normalize).toList();
+        int nostalgicYear = Year.now().getValue() - 10;
+        FilterKey key = new FilterKey(genreKey, emotionKey, awarded, nostalgicYear);
+
+        Snapshot current = current();
+        MeiliFilter cached = current.filters().get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<MeiliFilter> conditions = new ArrayList<>();
+        if (!genreKey.isEmpty()) {
+            conditions.add(MeiliFilter.in("genre", genreKey));
+        }
+        boolean nostalgic = false;
+        for (String emotion : emotionKey) {
+            if (NOSTALGIC.equals(emotion)) {
+                nostalgic = true;
+                continue;
+            }
+            MeiliFilter clause = current.clauseByEmotion().get(emotion);
+            if (clause != null) {
+                conditions.add(clause);
+            }
+        }
+        if (nostalgic) {
+            conditions.add(MeiliFilter.and(
+                    MeiliFilter.atMost("yearInt", nostalgicYear),
+                    MeiliFilter.greaterThan("imdbRating", 8.5),
+                    MeiliFilter.greaterThan("imdbVotesInt", 50000)));
+        }
+        if (awarded) {
+            conditions.add(MeiliFilter.eq("hasWinAward", true));
+        }
+
+        MeiliFilter filter = MeiliFilter.and(conditions);
+        // Genres come from the request, so the memo is bounded rather than keyed without limit
+        if (current.filters().size() >= MAX_MEMOIZED_FILTERS) {
+            current.filters().clear();
+        }
+        current.filters().put(key, filter);
+        return filter;
+    }
+
+    /**
+     * Re-reads the mappings and swaps the snapshot in if they changed.
+     */
+    @Scheduled(fixedDelayString = "${app.emotions.refresh-interval-ms:300000}",
+            initialDelayString = "${app.emotions.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            List<EmotionGenreMap> mappings = repository.findAllWithGenres().stream()
+                    .filter(mapping -> mapping.getEmotion() != null)
+                    .map(mapping -> EmotionGenreMap.builder()
+                            .id(mapping.getId())
+                            .emotion(mapping.getEmotion())
+                            .genres(mapping.getGenres() == null ? List.of() : List.copyOf(mapping.getGenres()))
+                            .build())
+                    .toList();
+            Snapshot previous = snapshot;
+            if (previous == null || !previous.mappings().equals(mappings)) {
+                snapshot = buildSnapshot(mappings);
+                log.info("Loaded {} emotion-to-genre mappings.", mappings.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh emotion-to-genre mappings, keeping the previous snapshot.", e);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot != null ? snapshot : Snapshot.EMPTY;
+            }
+        }
+        return current;
+    }
+
+    private static Snapshot buildSnapshot(List<EmotionGenreMap> mappings) {
+        Map<String, List<String>> genresByEmotion = new HashMap<>();
+        Map<String, MeiliFilter> clauseByEmotion = new HashMap<>();
+        for (EmotionGenreMap mapping : mappings) {
+            String emotion = normalize(mapping.getEmotion());
+            genresByEmotion.put(emotion, mapping.getGenres());
+            // Through the mask, so the clause spells genres exactly as the indexed documents do
+            long genreMask = mapping.getGenreMask();
+            if (genreMask != 0) {
+                clauseByEmotion.put(emotion, MeiliFilter.in("genre", Genre.labelsOf(genreMask)));
+            }
+        }
+        return new Snapshot(Map.copyOf(genresByEmotion), Map.copyOf(clauseByEmotion), mappings,
+                new ConcurrentHashMap<>());
+    }
+
+    private static String normalize(String emotion) {
+        return emotion.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Snapshot(
+            Map<String, List<String>> genresByEmotion,
+            Map<String, MeiliFilter> clauseByEmotion,
+            List<EmotionGenreMap> mappings,
+            Map<FilterKey, MeiliFilter> filters) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), List.of(), new ConcurrentHashMap<>());
+    }
+
+    private record FilterKey(List<String> genres, List<String> emotions, boolean awarded, int nostalgicYear) {
     }
 }
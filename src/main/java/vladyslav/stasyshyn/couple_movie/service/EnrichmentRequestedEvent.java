@@ -0,0 +1,9 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import java.util.List;
+
+/**
+ * Published when movies known only from search summaries should get their full OMDb details.
+ */
+public record EnrichmentRequestedEvent(List<String> imdbIds, EnrichmentScheduler.Priority priority) {
+}
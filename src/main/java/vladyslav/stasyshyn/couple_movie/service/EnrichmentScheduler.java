@@ -0,0 +1,275 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbMovieDetails;
+import vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException;
+import vladyslav.stasyshyn.couple_movie.model.EnrichmentState;
+import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
+import vladyslav.stasyshyn.couple_movie.resilience.RateLimiter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches the full OMDb details of movies known only from search summaries. IMDb IDs are queued once
+ * (asking again only raises their priority), a fixed pool of workers drains the queue most-wanted first
+ * under the OMDb rate limit, and a conditional claim on the movie's {@code enrichment_state} makes sure
+ * each movie is fetched once even when several searches or instances want it at the same time. Claims are
+ * leased: one left behind by an instance that stopped mid-fetch goes back to PENDING once the lease runs out.
+ */
+@Service
+@Slf4j
+public class EnrichmentScheduler {
+
+    /**
+     * Why a movie is wanted; results a user is looking at go first.
+     */
+    public enum Priority {
+        BACKFILL, SEARCH_RESULT, USER_VISIBLE
+    }
+
+    private final OmdbService omdbService;
+    private final MovieRepository movieRepository;
+    private final RateLimiter rateLimiter;
+    private final int workers;
+    private final int maxQueued;
+    private final PriorityBlockingQueue<Task> queue = new PriorityBlockingQueue<>();
+    private final Map<String, Task> queued = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    /**
+     * Fetched IDs that have no row to record the state on (OMDb details below the save threshold).
+     */
+    private final Set<String> recentlyFetched = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("enrichment-retry").daemon().factory());
+
+    @Value("${app.enrichment.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    /**
+     * How long a claim stays reserved; far longer than a rate-limited OMDb fetch should take.
+     */
+    @Value("${app.enrichment.claim-lease-ms:300000}")
+    private long claimLeaseMs;
+
+    @Value("${app.enrichment.backfill-batch-size:100}")
+    private int backfillBatchSize;
+
+    public EnrichmentScheduler(OmdbService omdbService,
+                               MovieRepository movieRepository,
+                               @Value("${app.enrichment.workers:4}") int workers,
+                               @Value("${app.enrichment.requests-per-second:5}") double requestsPerSecond,
+                               @Value("${app.enrichment.burst:5}") int burst,
+                               @Value("${app.enrichment.max-queued:10000}") int maxQueued) {
+        this.omdbService = omdbService;
+        this.movieRepository = movieRepository;
+        this.rateLimiter = new RateLimiter(requestsPerSecond, burst);
+        this.workers = Math.max(1, workers);
+        this.maxQueued = maxQueued;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        releaseExpiredClaims();
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::work);
+        }
+    }
+
+    @EventListener
+    public void onEnrichmentRequested(EnrichmentRequestedEvent event) {
+        enqueue(event.imdbIds(), event.priority());
+    }
+
+    /**
+     * Queues movies for enrichment. An ID that is already queued keeps its place but may move up:
+     * to the higher priority, and ahead of equally ranked IDs as more searches ask for it.
+     */
+    public void enqueue(Collection<String> imdbIds, Priority priority) {
+        for (String imdbId : imdbIds) {
+            if (imdbId == null || imdbId.isBlank() || inFlight.contains(imdbId) || recentlyFetched.contains(imdbId)) {
+                continue;
+            }
+            queued.compute(imdbId, (id, current) -> {
+                if (current == null) {
+                    if (queued.size() >= maxQueued && priority == Priority.BACKFILL) {
+                        return null;
+                    }
+                    Task task = new Task(id, priority, 1, sequence.getAndIncrement());
+                    queue.add(task);
+                    return task;
+                }
+                Priority raised = priority.compareTo(current.priority()) > 0 ? priority : current.priority();
+                int interest = current.interest() + 1;
+                Task task = new Task(id, raised, interest, current.sequence());
+                // Re-queue on a priority change and at doubling interest; the old entry is skipped when taken
+                if (raised != current.priority() || Integer.bitCount(interest) == 1) {
+                    queue.add(task);
+                }
+                return task;
+            });
+        }
+    }
+
+    /**
+     * Releases expired claims, then tops the queue up with pending rows, most popular first, when it runs low.
+     */
+    @Scheduled(fixedDelayString = "${app.enrichment.backfill-interval-ms:60000}",
+            initialDelayString = "${app.enrichment.backfill-interval-ms:60000}")
+    public void enqueuePendingBackfill() {
+        releaseExpiredClaims();
+        if (backfillBatchSize <= 0 || queued.size() >= backfillBatchSize) {
+            return;
+        }
+        try {
+            enqueue(movieRepository.findPendingEnrichment(backfillBatchSize), Priority.BACKFILL);
+        } catch (Exception e) {
+            log.warn("Failed to load movies pending enrichment", e);
+        }
+    }
+
+    public int queuedCount() {
+        return queued.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        retries.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Only claims older than the lease: the ones other live instances hold are still being fetched.
+     */
+    private void releaseExpiredClaims() {
+        try {
+            int released = movieRepository.releaseExpiredEnrichmentClaims(
+                    LocalDateTime.now().minus(Duration.ofMillis(claimLeaseMs)));
+            if (released > 0) {
+                log.info("Released {} expired enrichment claims.", released);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to release expired enrichment claims", e);
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Task current = queued.get(task.imdbId());
+            // Stale entry: replaced by a re-queued one, or that one was already taken
+            if (current == null || current.priority() != task.priority() || !queued.remove(task.imdbId(), current)) {
+                continue;
+            }
+            boolean postponed = false;
+            inFlight.add(task.imdbId());
+            try {
+                postponed = enrich(current);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Enrichment of {} failed", task.imdbId(), e);
+            } finally {
+                inFlight.remove(task.imdbId());
+            }
+            // Re-queued only once it is out of inFlight, or enqueue would drop it
+            if (postponed) {
+                retryLater(current);
+            }
+        }
+    }
+
+    /**
+     * Returns true when OMDb was unavailable and the movie should be tried again later.
+     */
+    private boolean enrich(Task task) throws InterruptedException {
+        String imdbId = task.imdbId();
+        try {
+            if (movieRepository.claimForEnrichment(imdbId, LocalDateTime.now()) == 0
+                    && movieRepository.existsById(imdbId)) {
+                return false; // already enriched, or another worker or instance has it
+            }
+        } catch (Exception e) {
+            log.warn("Failed to claim {} for enrichment", imdbId, e);
+            return false;
+        }
+
+        rateLimiter.acquire();
+        try {
+            OmdbMovieDetails details = omdbService.getMovieDetails(imdbId);
+            boolean found = details != null && details.imdbID() != null;
+            if (movieRepository.updateEnrichmentState(imdbId, found ? EnrichmentState.ENRICHED : EnrichmentState.FAILED) == 0) {
+                rememberFetched(imdbId);
+            }
+        } catch (DependencyUnavailableException e) {
+            // OMDb is down or saturated: hand the claim back and retry after a pause
+            log.debug("OMDb unavailable, postponing enrichment of {}: {}", imdbId, e.getMessage());
+            movieRepository.updateEnrichmentState(imdbId, EnrichmentState.PENDING);
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to enrich movie {}", imdbId, e);
+            if (movieRepository.updateEnrichmentState(imdbId, EnrichmentState.FAILED) == 0) {
+                rememberFetched(imdbId);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Re-queues a postponed movie after the retry delay, without holding a worker while it waits.
+     */
+    private void retryLater(Task task) {
+        try {
+            retries.schedule(() -> enqueue(Set.of(task.imdbId()), task.priority()),
+                    retryDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the row is PENDING again and the next backfill picks it up
+        }
+    }
+
+    private void rememberFetched(String imdbId) {
+        if (recentlyFetched.size() >= maxQueued) {
+            recentlyFetched.clear();
+        }
+        recentlyFetched.add(imdbId);
+    }
+
+    /**
+     * Higher priority first, then more interest, then first asked.
+     */
+    private record Task(String imdbId, Priority priority, int interest, long sequence) implements Comparable<Task> {
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = other.priority.compareTo(priority);
+            if (byPriority != 0) {
+                return byPriority;
+            }
+            int byInterest = Integer.compare(other.interest, interest);
+            return byInterest != 0 ? byInterest : Long.compare(sequence, other.sequence);
+        }
+    }
+}
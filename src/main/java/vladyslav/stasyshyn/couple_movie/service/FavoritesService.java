@@ -2,10 +2,14 @@ package vladyslav.stasyshyn.couple_movie.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vladyslav.stasyshyn.couple_movie.dto.AddFavoriteResponse;
+import vladyslav.stasyshyn.couple_movie.dto.CursorPageResponse;
 import vladyslav.stasyshyn.couple_movie.dto.FavoriteResponse;
+import vladyslav.stasyshyn.couple_movie.dto.KeysetCursor;
 import vladyslav.stasyshyn.couple_movie.dto.UpdateFavoriteRequest;
 import vladyslav.stasyshyn.couple_movie.dto.UpdateFavoriteResponse;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
@@ -15,7 +19,11 @@ import vladyslav.stasyshyn.couple_movie.exception.ResourceNotFoundException;
 import vladyslav.stasyshyn.couple_movie.model.WatchStatus;
 import vladyslav.stasyshyn.couple_movie.repository.UserFavoriteRepository;
 import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
+import vladyslav.stasyshyn.couple_movie.repository.projection.FavoriteMembership;
+import vladyslav.stasyshyn.couple_movie.repository.projection.FavoriteWithDetails;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -34,13 +42,46 @@ public class FavoritesService {
                 .stream().map(FavoriteResponse::fromProjection).collect(Collectors.toList());
     }
 
+    /**
+     * Keyset-paginated favorites, newest first, with optional watch status and genre filters.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<FavoriteResponse> getFavoritesPage(User user, String cursor, Integer limit,
+                                                                 String watchStatus, String genre) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetPaging.pageSize(limit);
+
+        // One extra row tells whether another page exists
+        List<FavoriteWithDetails> rows = userFavoriteRepository.findPageByUserWithDetails(user.getId(),
+                after.isUndated(), after.seekCreatedAt(), after.id(),
+                KeysetPaging.watchStatus(watchStatus), KeysetPaging.genre(genre), pageSize + 1);
+
+        return KeysetPaging.page(rows, pageSize, FavoriteResponse::fromProjection);
+    }
+
     @Transactional(readOnly = true)
     public List<String> getFavoriteIds(User user) {
         return userFavoriteRepository.findImdbIdsByUser(user);
     }
 
+    /**
+     * IMDb ID -> watch status of every favorite of the user; the in-memory set behind membership checks.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "favoriteMembership", key = "#userId")
+    public Map<String, WatchStatus> getFavoriteStatuses(Long userId) {
+        Map<String, WatchStatus> statuses = new HashMap<>();
+        for (FavoriteMembership row : userFavoriteRepository.findMembershipByUserId(userId)) {
+            statuses.put(row.getImdbId(), row.getWatchStatus() != null ? row.getWatchStatus() : WatchStatus.PLAN_TO_WATCH);
+        }
+        return Collections.unmodifiableMap(statuses);
+    }
+
     @Transactional
-    @CacheEvict(value = "recommendations", key = "#user.id")
+    @Caching(evict = {
+            @CacheEvict(value = "recommendations", key = "#user.id"),
+            @CacheEvict(value = "favoriteMembership", key = "#user.id")
+    })
     public AddFavoriteResponse addFavorite(User user, Map<String, String> request) {
         String imdbId = request.get("imdb_id");
 
@@ -71,6 +112,7 @@ public class FavoritesService {
     }
 
     @Transactional
+    @CacheEvict(value = "favoriteMembership", key = "#user.id")
     public UpdateFavoriteResponse updateFavorite(User user, String imdbId, UpdateFavoriteRequest request) {
         UserFavorite fav = userFavoriteRepository.findByUserAndImdbId(user, imdbId)
                 .orElseThrow(() -> new ResourceNotFoundException("Favorite movie not found"));
@@ -93,7 +135,10 @@ public class FavoritesService {
     }
 
     @Transactional
-    @CacheEvict(value = "recommendations", key = "#user.id")
+    @Caching(evict = {
+            @CacheEvict(value = "recommendations", key = "#user.id"),
+            @CacheEvict(value = "favoriteMembership", key = "#user.id")
+    })
     public void removeFavorite(User user, String imdbId) {
         userFavoriteRepository.deleteByUserAndImdbId(user, imdbId);
     }
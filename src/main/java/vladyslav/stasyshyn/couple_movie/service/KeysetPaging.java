@@ -0,0 +1,70 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import vladyslav.stasyshyn.couple_movie.dto.CursorPageResponse;
+import vladyslav.stasyshyn.couple_movie.dto.KeysetCursor;
+import vladyslav.stasyshyn.couple_movie.model.WatchStatus;
+import vladyslav.stasyshyn.couple_movie.repository.projection.KeysetRow;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Request parsing and page assembly shared by the keyset-paginated lists.
+ * The repositories run the query; see {@link KeysetRow} for the seek predicate.
+ */
+final class KeysetPaging {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private KeysetPaging() {
+    }
+
+    static int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Watch status filter as stored in the database, or null for none. Unknown values are a bad request.
+     */
+    static String watchStatus(String watchStatus) {
+        if (watchStatus == null || watchStatus.isBlank()) {
+            return null;
+        }
+        try {
+            return WatchStatus.valueOf(watchStatus.trim().toUpperCase(Locale.ROOT)).name();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid watch status: " + watchStatus);
+        }
+    }
+
+    /**
+     * Genre filter with the LIKE wildcards escaped, so it matches as a plain substring.
+     */
+    static String genre(String genre) {
+        if (genre == null || genre.isBlank()) {
+            return null;
+        }
+        return genre.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    /**
+     * Builds the page from a query that fetched one row more than the page size,
+     * the extra row telling whether another page exists.
+     */
+    static <T extends KeysetRow, R> CursorPageResponse<R> page(List<T> rows, int pageSize,
+                                                              Function<? super T, R> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            T last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(page.stream().map(mapper).toList(), nextCursor, hasMore);
+    }
+}
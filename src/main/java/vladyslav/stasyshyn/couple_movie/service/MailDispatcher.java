@@ -0,0 +1,153 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import vladyslav.stasyshyn.couple_movie.entity.MailOutbox;
+import vladyslav.stasyshyn.couple_movie.model.MailStatus;
+import vladyslav.stasyshyn.couple_movie.repository.MailOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Delivers the mail outbox in the background. Each poll claims as many due messages as there are
+ * free send slots (row locks with SKIP LOCKED, so several instances can poll at once) and sends them
+ * on virtual threads. A failed send is retried with exponential backoff until {@code max-attempts}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.mail.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class MailDispatcher {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore sendSlots;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${app.mail.dispatcher.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.dispatcher.initial-backoff-ms:10000}")
+    private long initialBackoffMs;
+
+    @Value("${app.mail.dispatcher.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    /**
+     * How long a claimed message stays reserved; longer than any SMTP send should take.
+     */
+    @Value("${app.mail.dispatcher.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.mail.dispatcher.retention-days:7}")
+    private int retentionDays;
+
+    public MailDispatcher(MailOutboxRepository mailOutboxRepository,
+                          JavaMailSender mailSender,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${app.mail.dispatcher.max-concurrent-sends:4}") int maxConcurrentSends) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.sendSlots = new Semaphore(Math.max(1, maxConcurrentSends));
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.dispatcher.poll-interval-ms:2000}")
+    public void dispatchDue() {
+        int free = sendSlots.availablePermits();
+        if (free == 0) {
+            return;
+        }
+
+        List<MailOutbox> claimed;
+        try {
+            claimed = claim(free);
+        } catch (Exception e) {
+            log.warn("Failed to claim due emails from the outbox", e);
+            return;
+        }
+
+        for (MailOutbox mail : claimed) {
+            sendSlots.acquireUninterruptibly();
+            executor.submit(() -> {
+                try {
+                    deliver(mail);
+                } finally {
+                    sendSlots.release();
+                }
+            });
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeSent() {
+        int deleted = mailOutboxRepository.deleteSentBefore(MailStatus.SENT, LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} delivered emails from the outbox.", deleted);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    private List<MailOutbox> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<MailOutbox> due = mailOutboxRepository.lockDue(now, limit);
+            for (MailOutbox mail : due) {
+                mail.setStatus(MailStatus.SENDING);
+                mail.setAttempts(mail.getAttempts() + 1);
+                mail.setNextAttemptAt(now.plus(Duration.ofMillis(leaseMs)));
+            }
+            return mailOutboxRepository.saveAll(due);
+        });
+    }
+
+    private void deliver(MailOutbox mail) {
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            if (mail.getSender() != null && !mail.getSender().isBlank()) {
+                message.setFrom(mail.getSender());
+            }
+            message.setTo(mail.getRecipient());
+            if (mail.getReplyTo() != null) {
+                message.setReplyTo(mail.getReplyTo());
+            }
+            message.setSubject(mail.getSubject());
+            message.setText(mail.getBody());
+
+            mailSender.send(message);
+            mailOutboxRepository.updateDelivery(mail.getId(), MailStatus.SENT, LocalDateTime.now(), null, LocalDateTime.now());
+        } catch (Exception e) {
+            if (mail.getAttempts() >= maxAttempts) {
+                log.error("Giving up on email {} to {} after {} attempts", mail.getId(), mail.getRecipient(), mail.getAttempts(), e);
+                mailOutboxRepository.updateDelivery(mail.getId(), MailStatus.FAILED, LocalDateTime.now(), e.getMessage(), null);
+            } else {
+                long backoffMs = backoffMs(mail.getAttempts());
+                log.warn("Failed to send email {} to {} (attempt {}), retrying in {} ms: {}",
+                        mail.getId(), mail.getRecipient(), mail.getAttempts(), backoffMs, e.getMessage());
+                mailOutboxRepository.updateDelivery(mail.getId(), MailStatus.PENDING,
+                        LocalDateTime.now().plus(Duration.ofMillis(backoffMs)), e.getMessage(), null);
+            }
+        }
+    }
+
+    private long backoffMs(int attempts) {
+        long backoff = initialBackoffMs << Math.min(Math.max(0, attempts - 1), 20);
+        return Math.min(backoff, maxBackoffMs);
+    }
+}
@@ -0,0 +1,50 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import vladyslav.stasyshyn.couple_movie.dto.MembershipFlags;
+import vladyslav.stasyshyn.couple_movie.entity.User;
+import vladyslav.stasyshyn.couple_movie.model.WatchStatus;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers "is favorited / is in the couple list" for a whole result grid at once, from the cached
+ * per-user favorites and per-couple shared-list snapshots (at most one query each on a cache miss).
+ */
+@Service
+@RequiredArgsConstructor
+public class MembershipService {
+
+    private final FavoritesService favoritesService;
+    private final CoupleMovieService coupleMovieService;
+
+    public Map<String, MembershipFlags> getMembership(User user, List<String> imdbIds) {
+        Map<String, WatchStatus> favorites = favoritesService.getFavoriteStatuses(user.getId());
+        Map<String, CoupleMovieService.CoupleEntry> coupleEntries = user.getPartnerId() != null && user.getCoupleId() != null
+                ? coupleMovieService.getCoupleEntries(user.getCoupleId())
+                : Map.of();
+
+        Map<String, MembershipFlags> result = new LinkedHashMap<>();
+        for (String imdbId : imdbIds) {
+            if (imdbId == null || result.containsKey(imdbId)) {
+                continue;
+            }
+            WatchStatus favoriteStatus = favorites.get(imdbId);
+            CoupleMovieService.CoupleEntry entry = coupleEntries.get(imdbId);
+            if (favoriteStatus == null && entry == null) {
+                result.put(imdbId, MembershipFlags.NONE);
+                continue;
+            }
+            result.put(imdbId, new MembershipFlags(
+                    favoriteStatus != null,
+                    entry != null,
+                    entry != null && entry.isAddedBy(user.getId()),
+                    entry != null && entry.isMatch(),
+                    favoriteStatus == WatchStatus.WATCHED || (entry != null && entry.watchStatus() == WatchStatus.WATCHED)));
+        }
+        return result;
+    }
+}
@@ -1,28 +1,51 @@
 package vladyslav.stasyshyn.couple_movie.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.meilisearch.sdk.Client;
 import com.meilisearch.sdk.Index;
 import com.meilisearch.sdk.SearchRequest;
 import com.meilisearch.sdk.model.MatchingStrategy;
 import com.meilisearch.sdk.model.SearchResult;
+import com.meilisearch.sdk.model.SearchResultPaginated;
+import com.meilisearch.sdk.model.Task;
+import com.meilisearch.sdk.model.TaskInfo;
+import com.meilisearch.sdk.model.TaskStatus;
 import com.meilisearch.sdk.model.Settings;
 import com.meilisearch.sdk.model.Pagination;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import vladyslav.stasyshyn.couple_movie.document.MovieDocument;
+import vladyslav.stasyshyn.couple_movie.dto.CursorPageResponse;
+import vladyslav.stasyshyn.couple_movie.dto.SearchCursor;
 import vladyslav.stasyshyn.couple_movie.dto.SearchPageResponse;
 import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbMovieDetails;
 import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbMovieSummary;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
+import vladyslav.stasyshyn.couple_movie.entity.SearchIndexSettings;
+import vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException;
+import vladyslav.stasyshyn.couple_movie.model.EnrichmentState;
+import vladyslav.stasyshyn.couple_movie.model.Genre;
 import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
-
+import vladyslav.stasyshyn.couple_movie.repository.SearchIndexSettingsRepository;
+import vladyslav.stasyshyn.couple_movie.resilience.CallNotPermittedException;
+import vladyslav.stasyshyn.couple_movie.resilience.CircuitBreaker;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuard;
+import vladyslav.stasyshyn.couple_movie.search.LocalMovieIndex;
+import vladyslav.stasyshyn.couple_movie.search.MeiliFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Year;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.Optional;
 
@@ -34,95 +57,242 @@ public class MovieSearchService {
     private final Client meilisearchClient;
     private final ObjectMapper objectMapper;
     private final Optional<AiVectorizationService> aiVectorizationService;
+    private final SearchIndexSettingsRepository searchIndexSettingsRepository;
+    private final DependencyGuard meilisearch;
+    private final LocalMovieIndex localIndex;
+    /**
+     * How long startup waits for the settings task; a settings change re-indexes every document.
+     */
+    private final int settingsTaskTimeoutMs;
+    /**
+     * Set when documents could not be pushed to Meilisearch; they are re-pushed once it recovers.
+     */
+    private volatile boolean meilisearchBehind;
+    /**
+     * Held while a recovery re-push runs, so health checks do not start a second one.
+     */
+    private final AtomicBoolean resyncRunning = new AtomicBoolean();
     private final String INDEX_NAME = "movies";
+    private static final String[] FACETS = {"genre", "decade", "hasWinAward", "ratingBucket"};
+    /**
+     * Total order for search-after browsing: popularity, then the unique IMDb number.
+     */
+    private static final String[] BROWSE_SORT = {"imdbVotesInt:desc", "imdbNum:asc"};
+    static final int DEFAULT_BROWSE_PAGE_SIZE = 20;
+    static final int MAX_BROWSE_PAGE_SIZE = 100;
+
+    private static final String[] FILTERABLE_ATTRIBUTES = {"genre", "hasWinAward", "yearInt", "imdbVotesInt",
+            "imdbRating", "decade", "ratingBucket", "imdbNum"};
+    private static final String[] SEARCHABLE_ATTRIBUTES = {"title", "genre"};
+    private static final String[] SORTABLE_ATTRIBUTES = {"imdbVotesInt", "imdbNum"};
+    private static final String[] STOP_WORDS = {
+            "a", "an", "the", "and", "or", "but", "in", "on", "at",
+            "to", "for", "of", "with", "by", "from", "up", "about",
+            "into", "over", "after", "is", "are", "was", "were"
+    };
+    private static final int MAX_TOTAL_HITS = 10000;
 
     public MovieSearchService(MovieRepository movieRepository, 
                             Client meilisearchClient, 
                             ObjectMapper objectMapper,
-                            Optional<AiVectorizationService> aiVectorizationService) {
+                            Optional<AiVectorizationService> aiVectorizationService,
+                            SearchIndexSettingsRepository searchIndexSettingsRepository,
+                            DependencyGuard meilisearchGuard,
+                            LocalMovieIndex localIndex,
+                            @Value("${app.meilisearch.settings-task-timeout-ms:600000}") int settingsTaskTimeoutMs) {
         this.movieRepository = movieRepository;
         this.meilisearchClient = meilisearchClient;
         this.objectMapper = objectMapper;
         this.aiVectorizationService = aiVectorizationService;
-        setupMeilisearch();
+        this.searchIndexSettingsRepository = searchIndexSettingsRepository;
+        this.meilisearch = meilisearchGuard;
+        this.localIndex = localIndex;
+        this.settingsTaskTimeoutMs = settingsTaskTimeoutMs;
     }
 
-    private void setupMeilisearch() {
-        Index index = meilisearchClient.index(INDEX_NAME);
-        Settings settings = new Settings();
-        settings.setFilterableAttributes(new String[]{"genre", "hasWinAward", "yearInt", "imdbVotesInt", "imdbRating"});
-        settings.setSearchableAttributes(new String[]{"title", "genre"});
-        settings.setSortableAttributes(new String[]{"imdbVotesInt"});
+    /**
+     * Applies the index settings only when the manifest hash differs from the one stored in Postgres
+     * (or the index was recreated), and waits for the settings task so the re-index it triggers
+     * finishes before documents are pushed. The hash is stored only once the task has succeeded,
+     * so a failed or timed-out update is retried on the next start.
+     */
+    private void ensureMeilisearchSettings() {
+        String hash = settingsHash();
+        String indexCreatedAt = indexCreatedAt();
+        Optional<SearchIndexSettings> applied = searchIndexSettingsRepository.findById(INDEX_NAME);
+        if (indexCreatedAt != null && applied.isPresent()
+                && hash.equals(applied.get().getSettingsHash())
+                && indexCreatedAt.equals(applied.get().getIndexCreatedAt())) {
+            log.debug("Meilisearch settings for '{}' are up to date.", INDEX_NAME);
+            return;
+        }
 
-        settings.setStopWords(new String[]{
-                "a", "an", "the", "and", "or", "but", "in", "on", "at",
-                "to", "for", "of", "with", "by", "from", "up", "about",
-                "into", "over", "after", "is", "are", "was", "were"
-        });
+        Settings settings = new Settings();
+        settings.setFilterableAttributes(FILTERABLE_ATTRIBUTES);
+        settings.setSearchableAttributes(SEARCHABLE_ATTRIBUTES);
+        settings.setSortableAttributes(SORTABLE_ATTRIBUTES);
+        settings.setStopWords(STOP_WORDS);
 
         Pagination pagination = new Pagination();
-        pagination.setMaxTotalHits(10000);
+        pagination.setMaxTotalHits(MAX_TOTAL_HITS);
         settings.setPagination(pagination);
 
-        index.updateSettings(settings);
+        Index index = meilisearchClient.index(INDEX_NAME);
+        TaskInfo task = index.updateSettings(settings);
+        // waitForTask returns once the task is done, whether it succeeded or not
+        index.waitForTask(task.getTaskUid(), settingsTaskTimeoutMs, 500);
+        Task finished = index.getTask(task.getTaskUid());
+        if (finished.getStatus() != TaskStatus.SUCCEEDED) {
+            throw new IllegalStateException("Meilisearch settings task " + task.getTaskUid() + " ended as "
+                    + finished.getStatus() + ": " + finished.getError());
+        }
+
+        searchIndexSettingsRepository.save(SearchIndexSettings.builder()
+                .indexName(INDEX_NAME)
+                .settingsHash(hash)
+                .indexCreatedAt(indexCreatedAt())
+                .build());
+        log.info("Applied Meilisearch settings for '{}' (hash {}).", INDEX_NAME, hash.substring(0, 12));
     }
 
+    private static String settingsHash() {
+        String manifest = String.join("\n",
+                "filterable=" + String.join(",", FILTERABLE_ATTRIBUTES),
+                "searchable=" + String.join(",", SEARCHABLE_ATTRIBUTES),
+                "sortable=" + String.join(",", SORTABLE_ATTRIBUTES),
+                "stopWords=" + String.join(",", STOP_WORDS),
+                "maxTotalHits=" + MAX_TOTAL_HITS);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(manifest.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Null when the index does not exist yet.
+     */
+    private String indexCreatedAt() {
+        try {
+            return String.valueOf(meilisearchClient.getIndex(INDEX_NAME).getCreatedAt());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Settings check and full resync run on a background thread, off the startup path.
+     */
     @EventListener(ApplicationReadyEvent.class)
+    public void startMeilisearchSync() {
+        Thread.ofVirtual().name("meilisearch-sync").start(this::syncDatabaseToMeilisearch);
+    }
+
+    /**
+     * Rebuilds the local fallback index from the database and, unless Meilisearch is unavailable,
+     * replaces the Meilisearch documents too.
+     */
     public void syncDatabaseToMeilisearch() {
+        // Not under the call timeout: applying settings waits for Meilisearch to re-index
+        CircuitBreaker breaker = meilisearch.breaker();
+        boolean pushToMeilisearch = breaker.tryAcquire();
         try {
-            Index index = meilisearchClient.index(INDEX_NAME);
-            index.deleteAllDocuments();
-
-            int batchSize = 1000;
-            int pageNumber = 0;
-            Page<Movie> page;
-
-            do {
-                page = movieRepository.findAll(
-                        PageRequest.of(pageNumber, batchSize));
-
-                if (page.isEmpty()) break;
-
-                List<MovieDocument> documents = page.getContent().stream().map(m -> {
-                    List<String> genreList = new ArrayList<>();
-                    if (m.getGenre() != null && !m.getGenre().isEmpty() && !m.getGenre().equals("N/A")) {
-                        genreList = Arrays.stream(m.getGenre().split(","))
-                                .map(String::trim)
-                                .collect(Collectors.toList());
-                    }
-                    boolean hasWin = false;
-                    if (m.getAwards() != null && !m.getAwards().equals("N/A")) {
-                        hasWin = m.getAwards().matches("(?i).*\\b(win|wins|won)\\b.*");
-                    }
-                    return MovieDocument.builder()
-                            .imdbID(m.getImdbId())
-                            .title(m.getTitle())
-                            .year(m.getYear())
-                            .genre(genreList)
-                            .imdbRating(m.getImdbRating() != null ? m.getImdbRating() : 0.0)
-                            .awards(m.getAwards() != null ? m.getAwards() : "")
-                            .hasWinAward(hasWin)
-                            .yearInt(parseYear(m.getYear()))
-                            .imdbVotesInt(parseVotes(m.getImdbVotes()))
-                            .build();
-                }).collect(Collectors.toList());
-
-                String jsonDocs = objectMapper.writeValueAsString(documents);
-                index.addDocuments(jsonDocs, "imdbID");
-                pageNumber++;
-            } while (page.hasNext());
+            if (pushToMeilisearch) {
+                ensureMeilisearchSettings();
+                meilisearchClient.index(INDEX_NAME).deleteAllDocuments();
+                breaker.onSuccess();
+            }
+        } catch (Exception e) {
+            breaker.onFailure();
+            pushToMeilisearch = false;
+            log.error("Failed to prepare the Meilisearch index, syncing the local index only.", e);
+        }
+        if (!pushToMeilisearch) {
+            meilisearchBehind = true;
+        }
 
+        try {
+            localIndex.clear();
+            pushAllDocuments(pushToMeilisearch);
         } catch (Exception e) {
-            log.error("Failed to sync historical PostgreSQL movies to Meilisearch on startup.", e);
+            log.error("Failed to sync historical PostgreSQL movies to the search indexes on startup.", e);
         }
     }
 
-    public void saveMovie(OmdbMovieDetails omdbMovie) {
-        Long votes = parseVotes(omdbMovie.imdbVotes());
-        if (votes < 1000) {
+    /**
+     * Streams every movie into the local index and, if requested, to Meilisearch. A failed Meilisearch
+     * batch stops only the Meilisearch side and marks it as behind.
+     */
+    private void pushAllDocuments(boolean pushToMeilisearch) throws Exception {
+        int batchSize = 1000;
+        int pageNumber = 0;
+        Page<Movie> page;
+
+        do {
+            page = movieRepository.findAll(
+                    PageRequest.of(pageNumber, batchSize));
+
+            if (page.isEmpty()) break;
+
+            List<MovieDocument> documents = page.getContent().stream()
+                    .map(this::toDocument)
+                    .collect(Collectors.toList());
+
+            localIndex.addAll(documents);
+            if (pushToMeilisearch) {
+                try {
+                    String jsonDocs = objectMapper.writeValueAsString(documents);
+                    meilisearch.call(() -> meilisearchClient.index(INDEX_NAME).addDocuments(jsonDocs, "imdbID"));
+                } catch (Exception e) {
+                    pushToMeilisearch = false;
+                    meilisearchBehind = true;
+                    log.error("Failed to push movies to Meilisearch, continuing with the local index only.", e);
+                }
+            }
+            pageNumber++;
+        } while (page.hasNext());
+    }
+
+    /**
+     * Closes the breaker as soon as Meilisearch reports healthy again instead of waiting for a trial call,
+     * and re-pushes the documents it missed while it was down.
+     */
+    @Scheduled(fixedDelayString = "${app.meilisearch.health-check-interval-ms:10000}")
+    public void checkMeilisearchHealth() {
+        CircuitBreaker breaker = meilisearch.breaker();
+        if (breaker.isForcedOpen() || (breaker.getState() == CircuitBreaker.State.CLOSED && !meilisearchBehind)) {
             return;
         }
+        try {
+            if (!Boolean.TRUE.equals(meilisearchClient.isHealthy())) {
+                return;
+            }
+            breaker.reset();
+            if (meilisearchBehind && resyncRunning.compareAndSet(false, true)) {
+                meilisearchBehind = false;
+                log.info("Meilisearch is healthy again, re-pushing movie documents.");
+                // The full re-push takes minutes on a large corpus; the shared scheduler thread only starts it
+                Thread.ofVirtual().name("meilisearch-resync").start(this::resyncMeilisearch);
+            }
+        } catch (Exception e) {
+            meilisearchBehind = true;
+            log.warn("Meilisearch health check failed: {}", e.getMessage());
+        }
+    }
+
+    private void resyncMeilisearch() {
+        try {
+            pushAllDocuments(true);
+        } catch (Exception e) {
+            meilisearchBehind = true;
+            log.error("Failed to re-push movie documents to Meilisearch.", e);
+        } finally {
+            resyncRunning.set(false);
+        }
+    }
 
+    public void saveMovie(OmdbMovieDetails omdbMovie) {
         double rating = 0.0;
         if (omdbMovie.imdbRating() != null && !omdbMovie.imdbRating().equals("N/A")) {
             rating = Double.parseDouble(omdbMovie.imdbRating());
@@ -145,39 +315,16 @@ public class MovieSearchService {
                 .awards(omdbMovie.awards())
                 .imdbVotes(omdbMovie.imdbVotes())
                 .imdbRating(rating)
+                .enrichmentState(EnrichmentState.ENRICHED)
                 .build();
+        movie.deriveTypedColumns();
+        if (movie.getImdbVotesNum() == null || movie.getImdbVotesNum() < 1000) {
+            return;
+        }
         movieRepository.save(Objects.requireNonNull(movie));
         aiVectorizationService.ifPresent(service -> service.vectorizeMovie(movie));
 
-        List<String> genreList = new ArrayList<>();
-        if (omdbMovie.genre() != null && !omdbMovie.genre().isEmpty() && !omdbMovie.genre().equals("N/A")) {
-            genreList = Arrays.stream(omdbMovie.genre().split(","))
-                    .map(String::trim)
-                    .collect(Collectors.toList());
-        }
-
-        boolean hasWin = false;
-        if (omdbMovie.awards() != null && !omdbMovie.awards().equals("N/A")) {
-            hasWin = omdbMovie.awards().matches("(?i).*\\b(win|wins|won)\\b.*");
-        }
-        MovieDocument document = MovieDocument.builder()
-                .imdbID(omdbMovie.imdbID())
-                .title(omdbMovie.title())
-                .year(omdbMovie.year())
-                .genre(genreList)
-                .imdbRating(rating)
-                .awards(omdbMovie.awards() != null ? omdbMovie.awards() : "")
-                .hasWinAward(hasWin)
-                .yearInt(parseYear(omdbMovie.year()))
-                .imdbVotesInt(parseVotes(omdbMovie.imdbVotes()))
-                .build();
-
-        try {
-            String jsonDoc = objectMapper.writeValueAsString(Collections.singletonList(document));
-            meilisearchClient.index(INDEX_NAME).addDocuments(jsonDoc, "imdbID");
-        } catch (Exception e) {
-            log.error("Failed to index and save movie: {}", omdbMovie.title(), e);
-        }
+        indexDocuments(List.of(toDocument(movie)));
     }
 
     public void saveTrendingMovie(OmdbMovieDetails omdbMovie) {
@@ -203,39 +350,13 @@ public class MovieSearchService {
                 .awards(omdbMovie.awards())
                 .imdbVotes(omdbMovie.imdbVotes())
                 .imdbRating(rating)
+                .enrichmentState(EnrichmentState.ENRICHED)
                 .build();
+        movie.deriveTypedColumns();
         movieRepository.save(Objects.requireNonNull(movie));
         aiVectorizationService.ifPresent(service -> service.vectorizeMovie(movie));
 
-        List<String> genreList = new ArrayList<>();
-        if (omdbMovie.genre() != null && !omdbMovie.genre().isEmpty() && !omdbMovie.genre().equals("N/A")) {
-            genreList = Arrays.stream(omdbMovie.genre().split(","))
-                    .map(String::trim)
-                    .collect(Collectors.toList());
-        }
-
-        boolean hasWin = false;
-        if (omdbMovie.awards() != null && !omdbMovie.awards().equals("N/A")) {
-            hasWin = omdbMovie.awards().matches("(?i).*\\b(win|wins|won)\\b.*");
-        }
-        MovieDocument document = MovieDocument.builder()
-                .imdbID(omdbMovie.imdbID())
-                .title(omdbMovie.title())
-                .year(omdbMovie.year())
-                .genre(genreList)
-                .imdbRating(rating)
-                .awards(omdbMovie.awards() != null ? omdbMovie.awards() : "")
-                .hasWinAward(hasWin)
-                .yearInt(parseYear(omdbMovie.year()))
-                .imdbVotesInt(parseVotes(omdbMovie.imdbVotes()))
-                .build();
-
-        try {
-            String jsonDoc = objectMapper.writeValueAsString(Collections.singletonList(document));
-            meilisearchClient.index(INDEX_NAME).addDocuments(jsonDoc, "imdbID");
-        } catch (Exception e) {
-            log.error("Failed to index trending movie: {}", omdbMovie.title(), e);
-        }
+        indexDocuments(List.of(toDocument(movie)));
     }
 
     public void saveMovieSummaries(List<OmdbMovieSummary> summaries) {
@@ -263,40 +384,34 @@ public class MovieSearchService {
                     .genre(summary.genre())
                     .awards(summary.awards())
                     .imdbRating(summary.imdbRating() != null ? summary.imdbRating() : 0.0)
+                    .enrichmentState(EnrichmentState.PENDING)
                     .build();
+            movie.deriveTypedColumns();
             newMovies.add(movie);
-
-            boolean hasWin = false;
-            if (summary.awards() != null && !summary.awards().equals("N/A")) {
-                hasWin = summary.awards().matches("(?i).*\\b(win|wins|won)\\b.*");
-            }
-
-            List<String> genreList = new ArrayList<>();
-            if (summary.genre() != null && !summary.genre().isEmpty() && !summary.genre().equals("N/A")) {
-                genreList = Arrays.stream(summary.genre().split(","))
-                        .map(String::trim)
-                        .collect(Collectors.toList());
-            }
-
-            MovieDocument document = MovieDocument.builder()
-                    .imdbID(summary.imdbID())
-                    .title(summary.title())
-                    .year(summary.year())
-                    .genre(genreList)
-                    .awards(summary.awards())
-                    .imdbRating(summary.imdbRating() != null ? summary.imdbRating() : 0.0)
-                    .hasWinAward(hasWin)
-                    .build();
-            newDocs.add(document);
+            newDocs.add(toDocument(movie));
         }
 
         if (!newMovies.isEmpty()) {
             movieRepository.saveAll(newMovies);
-            try {
-                String jsonDocs = objectMapper.writeValueAsString(newDocs);
-                meilisearchClient.index(INDEX_NAME).addDocuments(jsonDocs, "imdbID");
-            } catch (Exception e) {
-                log.error("Failed to batch index summaries to Meilisearch", e);
+            indexDocuments(newDocs);
+        }
+    }
+
+    /**
+     * Adds documents to the local index and to Meilisearch; if Meilisearch is unavailable they stay
+     * searchable locally and are pushed by the next health check that finds it recovered.
+     */
+    private void indexDocuments(List<MovieDocument> documents) {
+        localIndex.addAll(documents);
+        try {
+            String jsonDocs = objectMapper.writeValueAsString(documents);
+            meilisearch.call(() -> meilisearchClient.index(INDEX_NAME).addDocuments(jsonDocs, "imdbID"));
+        } catch (Exception e) {
+            meilisearchBehind = true;
+            if (e instanceof CallNotPermittedException) {
+                log.debug("Meilisearch unavailable, {} movie(s) indexed locally only.", documents.size());
+            } else {
+                log.error("Failed to index {} movie(s) in Meilisearch", documents.size(), e);
             }
         }
     }
@@ -311,27 +426,12 @@ public class MovieSearchService {
                     .sort(new String[]{"imdbVotesInt:desc"})
                     .matchingStrategy(MatchingStrategy.ALL)
                     .build();
-            SearchResult searchResult = (SearchResult) meilisearchClient
-                    .index(INDEX_NAME).search(request);
+            SearchResult searchResult = searchMeilisearch(request);
             List<String> ids = extractIdsFromHits(searchResult.getHits());
-
-            if (ids.isEmpty()) {
-                return new SearchPageResponse(List.of(), searchResult.getEstimatedTotalHits(), page, size);
-            }
-
-            List<Movie> unsortedMovies = movieRepository.findAllById(ids);
-            Map<String, Movie> movieMap = unsortedMovies.stream()
-                    .collect(Collectors.toMap(Movie::getImdbId, m -> m));
-            List<Movie> sortedMovies = new ArrayList<>();
-            for (String id : ids) {
-                if (movieMap.containsKey(id)) {
-                    sortedMovies.add(movieMap.get(id));
-                }
-            }
-            return new SearchPageResponse(sortedMovies, searchResult.getEstimatedTotalHits(), page, size);
+            return new SearchPageResponse(loadInOrder(ids), searchResult.getEstimatedTotalHits(), page, size);
         } catch (Exception e) {
-            log.error("Error searching movies in Meilisearch", e);
-            return new SearchPageResponse(List.of(), 0, page, size);
+            logFallback("searching movies", e);
+            return searchLocally(query, MeiliFilter.ALL, page, size, false);
         }
     }
 
@@ -344,26 +444,11 @@ public class MovieSearchService {
                     .sort(new String[]{"imdbVotesInt:desc"})
                     .matchingStrategy(MatchingStrategy.ALL)
                     .build();
-            SearchResult searchResult = (SearchResult) meilisearchClient
-                    .index(INDEX_NAME).search(request);
-            List<String> ids = extractIdsFromHits(searchResult.getHits());
-
-            if (ids.isEmpty())
-                return List.of();
-
-            List<Movie> unsortedMovies = movieRepository.findAllById(ids);
-            Map<String, Movie> movieMap = unsortedMovies.stream()
-                    .collect(Collectors.toMap(Movie::getImdbId, m -> m));
-            List<Movie> sortedMovies = new ArrayList<>();
-            for (String id : ids) {
-                if (movieMap.containsKey(id)) {
-                    sortedMovies.add(movieMap.get(id));
-                }
-            }
-            return sortedMovies;
+            SearchResult searchResult = searchMeilisearch(request);
+            return loadInOrder(extractIdsFromHits(searchResult.getHits()));
         } catch (Exception e) {
-            log.error("Error autocompleting movies in Meilisearch", e);
-            return List.of();
+            logFallback("autocompleting movies", e);
+            return loadInOrder(localIndex.search(query, MeiliFilter.ALL, 0, limit, false).ids());
         }
     }
 
@@ -376,40 +461,24 @@ public class MovieSearchService {
         if (genres == null || genres.isEmpty()) {
             return new SearchPageResponse(List.of(), 0, page, size);
         }
+        MeiliFilter filter = MeiliFilter.in("genre", genres.stream().map(String::trim).toList());
         try {
-            String filterQuery = genres.stream()
-                    .map(g -> "genre = \"" + g.trim() + "\"")
-                    .collect(Collectors.joining(" OR "));
-
             SearchRequest request = SearchRequest.builder()
                     .q("")
-                    .filter(new String[]{filterQuery})
-                    .offset(page * size)
-                    .limit(size)
+                    .filter(new String[]{filter.render()})
+                    .page(page + 1)
+                    .hitsPerPage(size)
                     .sort(new String[]{"imdbVotesInt:desc"})
+                    .facets(FACETS)
                     .build();
 
-            SearchResult searchResult = (SearchResult) meilisearchClient
-                    .index(INDEX_NAME).search(request);
+            SearchResultPaginated searchResult = searchMeilisearchPage(request);
             List<String> ids = extractIdsFromHits(searchResult.getHits());
-
-            if (ids.isEmpty()) {
-                return new SearchPageResponse(List.of(), searchResult.getEstimatedTotalHits(), page, size);
-            }
-
-            List<Movie> unsortedMovies = movieRepository.findAllById(ids);
-            Map<String, Movie> movieMap = unsortedMovies.stream()
-                    .collect(Collectors.toMap(Movie::getImdbId, m -> m));
-            List<Movie> sortedMovies = new ArrayList<>();
-            for (String id : ids) {
-                if (movieMap.containsKey(id)) {
-                    sortedMovies.add(movieMap.get(id));
-                }
-            }
-            return new SearchPageResponse(sortedMovies, searchResult.getEstimatedTotalHits(), page, size);
+            Map<String, Map<String, Long>> facets = extractFacets(searchResult.getFacetDistribution());
+            return new SearchPageResponse(loadInOrder(ids), searchResult.getTotalHits(), page, size, facets);
         } catch (Exception e) {
-            log.error("Error searching movies by genres in Meilisearch", e);
-            return new SearchPageResponse(List.of(), 0, page, size);
+            logFallback("searching movies by genres", e);
+            return searchLocally("", filter, page, size, true);
         }
     }
 
@@ -417,104 +486,169 @@ public class MovieSearchService {
         return searchByGenres(genres, 0, 1000).movies();
     }
 
-    public List<Movie> searchNostalgic() {
-        int year = Year.now().getValue() - 10;
-        List<Movie> allMovies = movieRepository.findAll();
-        return allMovies.stream()
-                .filter(m -> m.getImdbRating() != null && m.getImdbRating() > 8.5)
-                .filter(m -> {
-                    try {
-                        String movieYear = m.getYear();
-                        if (movieYear != null && !movieYear.equals("N/A")) {
-                            int yr = Integer.parseInt(movieYear.substring(0, 4));
-                            return yr <= year;
-                        }
-                    } catch (Exception e) {
-                        log.debug("Could not parse year for movie: {}", m.getImdbId(), e);
-                    }
-                    return false;
-                })
-                .sorted(Comparator.comparing(m -> parseVotes(m.getImdbVotes()), Comparator.nullsLast(Comparator.reverseOrder())))
-                .collect(Collectors.toList());
+    /**
+     * Cursor-paginated genre browse; deep pages cost the same as the first one.
+     */
+    public CursorPageResponse<Movie> searchByGenresPage(List<String> genres, String cursor, Integer limit) {
+        if (genres == null || genres.isEmpty()) {
+            return new CursorPageResponse<>(List.of(), null, false);
+        }
+        return browse(MeiliFilter.in("genre", genres.stream().map(String::trim).toList()), cursor, limit);
     }
 
-    public SearchPageResponse filterMoviesAndEmotions(List<String> genres, List<String> emotions,
-                                                      EmotionGenreService emotionGenreService, int page, int size, boolean awarded) {
-
+    /**
+     * Cursor-paginated variant of {@link #filterMoviesAndEmotions}.
+     */
+    public CursorPageResponse<Movie> filterMoviesAndEmotionsPage(List<String> genres, List<String> emotions,
+                                                                 EmotionGenreService emotionGenreService,
+                                                                 String cursor, Integer limit, boolean awarded) {
         boolean hasGenres = genres != null && !genres.isEmpty();
         boolean hasEmotions = emotions != null && !emotions.isEmpty();
-
         if (!hasGenres && !hasEmotions && !awarded) {
-            return new SearchPageResponse(List.of(), 0, page, size);
+            return new CursorPageResponse<>(List.of(), null, false);
         }
+        return browse(emotionGenreService.buildFilterTree(genres, emotions, awarded), cursor, limit);
+    }
 
-        List<String> filterConditions = new ArrayList<>();
+    /**
+     * Search-after over {@link #BROWSE_SORT}: instead of an offset, the page starts strictly after the
+     * cursor's (votes, imdbNum) position, so every page is a top-N query and maxTotalHits never cuts it off.
+     */
+    private CursorPageResponse<Movie> browse(MeiliFilter filter, String cursor, Integer limit) {
+        SearchCursor after = SearchCursor.decode(cursor);
+        int pageSize = limit == null ? DEFAULT_BROWSE_PAGE_SIZE : Math.clamp(limit, 1, MAX_BROWSE_PAGE_SIZE);
+
+        List<String> ids;
+        SearchCursor next = null;
+        boolean hasMore;
+        try {
+            List<String> filters = new ArrayList<>(2);
+            String rendered = filter.render();
+            if (!rendered.isEmpty()) {
+                filters.add(rendered);
+            }
+            if (after != null) {
+                filters.add(MeiliFilter.or(
+                        MeiliFilter.lessThan("imdbVotesInt", after.votes()),
+                        MeiliFilter.and(
+                                MeiliFilter.eq("imdbVotesInt", after.votes()),
+                                MeiliFilter.greaterThan("imdbNum", after.imdbNum()))).render());
+            }
 
-        if (hasGenres) {
-            String genreQuery = genres.stream()
-                    .map(g -> "genre = \"" + g.trim() + "\"")
-                    .collect(Collectors.joining(" OR "));
-            filterConditions.add("(" + genreQuery + ")");
-        }
+            SearchRequest request = SearchRequest.builder()
+                    .q("")
+                    .filter(filters.toArray(String[]::new))
+                    .limit(pageSize + 1) // one extra hit tells whether another page exists
+                    .sort(BROWSE_SORT)
+                    .build();
 
-        if (hasEmotions) {
-            boolean isNostalgic = false;
-            for (String emotion : emotions) {
-                if (emotion.equalsIgnoreCase("nostalgic")) {
-                    isNostalgic = true;
-                    continue;
-                }
-                Set<String> emotionGenres = new HashSet<>(emotionGenreService.getGenresForEmotion(emotion.trim()));
-                if (!emotionGenres.isEmpty()) {
-                    String emotionQuery = emotionGenres.stream()
-                            .map(g -> "genre = \"" + g.trim() + "\"")
-                            .collect(Collectors.joining(" OR "));
-                    filterConditions.add("(" + emotionQuery + ")");
-                }
+            SearchResult searchResult = searchMeilisearch(request);
+            List<HashMap<String, Object>> hits = searchResult.getHits() != null ? searchResult.getHits() : List.of();
+            hasMore = hits.size() > pageSize;
+            List<HashMap<String, Object>> pageHits = hasMore ? hits.subList(0, pageSize) : hits;
+            if (hasMore) {
+                HashMap<String, Object> last = pageHits.get(pageHits.size() - 1);
+                next = new SearchCursor(
+                        ((Number) last.get("imdbVotesInt")).longValue(),
+                        ((Number) last.get("imdbNum")).longValue());
             }
-            if (isNostalgic) {
-                int nostalgicYear = Year.now().getValue() - 10;
-                filterConditions.add("(yearInt <= " + nostalgicYear + " AND imdbRating > 8.5 AND imdbVotesInt > 50000)");
+            ids = extractIdsFromHits(new ArrayList<>(pageHits));
+        } catch (Exception e) {
+            logFallback("browsing movies", e);
+            List<MovieDocument> documents = localIndex.searchAfter(filter, after, pageSize + 1);
+            hasMore = documents.size() > pageSize;
+            List<MovieDocument> pageDocuments = hasMore ? documents.subList(0, pageSize) : documents;
+            if (hasMore) {
+                MovieDocument last = pageDocuments.get(pageDocuments.size() - 1);
+                next = new SearchCursor(last.getImdbVotesInt(), last.getImdbNum());
             }
+            ids = pageDocuments.stream().map(MovieDocument::getImdbID).toList();
         }
+        return new CursorPageResponse<>(loadInOrder(ids), next == null ? null : next.encode(), hasMore);
+    }
 
-        if (awarded) {
-            filterConditions.add("hasWinAward = true");
+    public List<Movie> searchNostalgic() {
+        int year = Year.now().getValue() - 10;
+        return movieRepository.findHighlyRatedUpToYear(8.5, year);
+    }
+
+    public SearchPageResponse filterMoviesAndEmotions(List<String> genres, List<String> emotions,
+                                                      EmotionGenreService emotionGenreService, int page, int size, boolean awarded) {
+
+        boolean hasGenres = genres != null && !genres.isEmpty();
+        boolean hasEmotions = emotions != null && !emotions.isEmpty();
+
+        if (!hasGenres && !hasEmotions && !awarded) {
+            return new SearchPageResponse(List.of(), 0, page, size);
         }
 
-        String finalFilterQuery = String.join(" AND ", filterConditions);
+        // Built from the in-memory emotion snapshot and memoized there, no DB round trip
+        MeiliFilter filter = emotionGenreService.buildFilterTree(genres, emotions, awarded);
 
         try {
             SearchRequest request = SearchRequest.builder()
                     .q("")
-                    .filter(new String[]{finalFilterQuery})
-                    .offset(page * size)
-                    .limit(size)
+                    .filter(new String[]{filter.render()})
+                    .page(page + 1)
+                    .hitsPerPage(size)
                     .sort(new String[]{"imdbVotesInt:desc"})
+                    .facets(FACETS)
                     .build();
 
-            SearchResult searchResult = (SearchResult) meilisearchClient
-                    .index(INDEX_NAME).search(request);
+            SearchResultPaginated searchResult = searchMeilisearchPage(request);
             List<String> ids = extractIdsFromHits(searchResult.getHits());
+            Map<String, Map<String, Long>> facets = extractFacets(searchResult.getFacetDistribution());
+            return new SearchPageResponse(loadInOrder(ids), searchResult.getTotalHits(), page, size, facets);
+        } catch (Exception e) {
+            logFallback("filtering movies", e);
+            return searchLocally("", filter, page, size, true);
+        }
+    }
 
-            if (ids.isEmpty()) {
-                return new SearchPageResponse(List.of(), searchResult.getEstimatedTotalHits(), page, size);
-            }
+    /**
+     * Runs a search through the Meilisearch guard; throws {@link CallNotPermittedException} while its breaker is open.
+     */
+    private SearchResult searchMeilisearch(SearchRequest request) {
+        return meilisearch.call(() -> (SearchResult) meilisearchClient.index(INDEX_NAME).search(request));
+    }
 
-            List<Movie> unsortedMovies = movieRepository.findAllById(ids);
-            Map<String, Movie> movieMap = unsortedMovies.stream()
-                    .collect(Collectors.toMap(Movie::getImdbId, m -> m));
-            List<Movie> sortedMovies = new ArrayList<>();
-            for (String id : ids) {
-                if (movieMap.containsKey(id)) {
-                    sortedMovies.add(movieMap.get(id));
-                }
+    /**
+     * Page-numbered search: Meilisearch then counts the matches exactly (up to maxTotalHits)
+     * instead of estimating them, so faceted listings show a true total next to their facet counts.
+     */
+    private SearchResultPaginated searchMeilisearchPage(SearchRequest request) {
+        return meilisearch.call(() -> (SearchResultPaginated) meilisearchClient.index(INDEX_NAME).search(request));
+    }
+
+    private SearchPageResponse searchLocally(String query, MeiliFilter filter, int page, int size, boolean withFacets) {
+        LocalMovieIndex.Result result = localIndex.search(query, filter, page * size, size, withFacets);
+        return new SearchPageResponse(loadInOrder(result.ids()), result.totalHits(), page, size, result.facets());
+    }
+
+    private static void logFallback(String action, Exception e) {
+        if (e instanceof CallNotPermittedException) {
+            log.debug("Meilisearch unavailable, {} in the local index.", action);
+        } else {
+            log.error("Error {} in Meilisearch, falling back to the local index", action, e);
+        }
+    }
+
+    /**
+     * The movies of the given IDs, in the same order; IDs missing from the database are skipped.
+     */
+    private List<Movie> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Movie> movieMap = movieRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Movie::getImdbId, m -> m));
+        List<Movie> sortedMovies = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (movieMap.containsKey(id)) {
+                sortedMovies.add(movieMap.get(id));
             }
-            return new SearchPageResponse(sortedMovies, searchResult.getEstimatedTotalHits(), page, size);
-        } catch (Exception e) {
-            log.error("Error filtering movies in Meilisearch", e);
-            return new SearchPageResponse(List.of(), 0, page, size);
         }
+        return sortedMovies;
     }
 
     public Object getMovieDetails(String imdbId, OmdbService omdbService) {
@@ -526,7 +660,15 @@ public class MovieSearchService {
                 return movie;
             }
         }
-        return omdbService.getMovieDetails(imdbId);
+        try {
+            return omdbService.getMovieDetails(imdbId);
+        } catch (DependencyUnavailableException e) {
+            // Partial details beat an error while OMDb is unavailable
+            if (requestedMovie.isPresent()) {
+                return requestedMovie.get();
+            }
+            throw e;
+        }
     }
 
     public Map<String, Double> getBatchRatings(Map<String, List<String>> body) {
@@ -543,24 +685,60 @@ public class MovieSearchService {
         return ratings;
     }
 
-    private Integer parseYear(String yearStr) {
-        if (yearStr == null || yearStr.equalsIgnoreCase("N/A") || yearStr.isEmpty()) return 0;
-        try {
-            return Integer.parseInt(yearStr.substring(0, 4));
-        } catch (Exception e) {
-            return 0;
+    /**
+     * The search document of a movie; the numeric fields come from its typed columns.
+     */
+    private MovieDocument toDocument(Movie movie) {
+        // Dictionary labels only, spelled as the filters spell them; "N/A" and unknown names drop out
+        long genreMask = movie.getGenreMask() != null ? movie.getGenreMask() : Genre.maskOf(movie.getGenre());
+        List<String> genreList = Genre.labelsOf(genreMask);
+        boolean hasWin = false;
+        if (movie.getAwards() != null && !movie.getAwards().equals("N/A")) {
+            hasWin = movie.getAwards().matches("(?i).*\\b(win|wins|won)\\b.*");
         }
+        return MovieDocument.builder()
+                .imdbID(movie.getImdbId())
+                .title(movie.getTitle())
+                .year(movie.getYear())
+                .genre(genreList)
+                .imdbRating(movie.getImdbRating() != null ? movie.getImdbRating() : 0.0)
+                .awards(movie.getAwards() != null ? movie.getAwards() : "")
+                .hasWinAward(hasWin)
+                .yearInt(movie.getStartYear() != null ? movie.getStartYear() : 0)
+                .imdbVotesInt(movie.getImdbVotesNum() != null ? movie.getImdbVotesNum() : 0L)
+                .decade(movie.getStartYear() != null ? movie.getStartYear() / 10 * 10 : null)
+                .ratingBucket(ratingBucket(movie.getImdbRating()))
+                .imdbNum(imdbNum(movie.getImdbId()))
+                .build();
     }
 
-    private Long parseVotes(String votesStr) {
-        if (votesStr == null || votesStr.equalsIgnoreCase("N/A") || votesStr.isEmpty()) return 0L;
+    private static long imdbNum(String imdbId) {
+        if (imdbId == null || imdbId.length() < 3) return 0L;
         try {
-            return Long.parseLong(votesStr.replace(",", ""));
+            return Long.parseLong(imdbId.substring(2));
         } catch (NumberFormatException e) {
             return 0L;
         }
     }
 
+    private static String ratingBucket(Double rating) {
+        if (rating == null || rating <= 0.0) return null;
+        if (rating >= 9.0) return "9+";
+        if (rating < 5.0) return "<5";
+        int floor = (int) Math.floor(rating);
+        return floor + "-" + (floor + 1);
+    }
+
+    /**
+     * Meilisearch's facetDistribution ({@code {"genre": {"Drama": 120, ...}, ...}}) as typed maps.
+     */
+    private Map<String, Map<String, Long>> extractFacets(Object facetDistribution) {
+        if (facetDistribution == null) {
+            return Map.of();
+        }
+        return objectMapper.convertValue(facetDistribution, new TypeReference<Map<String, Map<String, Long>>>() {});
+    }
+
     private List<String> extractIdsFromHits(ArrayList<HashMap<String, Object>> hits) {
         if (hits == null)
             return List.of();
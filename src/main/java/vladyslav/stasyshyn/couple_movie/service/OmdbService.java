@@ -2,6 +2,7 @@ package vladyslav.stasyshyn.couple_movie.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbMovieDetails;
@@ -9,10 +10,10 @@ import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbMovieSummary;
 import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbSearchResponse;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
 import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuard;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuardRegistry;
 
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,57 +24,49 @@ public class OmdbService {
     private final String apiKey;
     private final MovieSearchService movieSearchService;
     private final MovieRepository movieRepository;
+    private final DependencyGuard omdb;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OmdbService(RestClient.Builder restClientBuilder,
                        @Value("${app.omdb.api-key}") String apiKey,
                        @Value("${app.omdb.url}") String omdbUrl,
                        MovieSearchService movieSearchService,
-                       MovieRepository movieRepository) {
+                       MovieRepository movieRepository,
+                       DependencyGuardRegistry dependencyGuardRegistry,
+                       ApplicationEventPublisher eventPublisher) {
         this.apiKey = apiKey;
-        this.restClient = restClientBuilder.baseUrl(omdbUrl).build();
+        this.restClient = restClientBuilder
+                .baseUrl(omdbUrl)
+                .requestFactory(dependencyGuardRegistry.requestFactory("omdb", omdbUrl))
+                .build();
         this.movieSearchService = movieSearchService;
         this.movieRepository = movieRepository;
+        this.omdb = dependencyGuardRegistry.guard("omdb");
+        this.eventPublisher = eventPublisher;
     }
 
-    public void fetchAndSaveFullDetailsAsync(List<OmdbMovieSummary> summaries) {
-        if (summaries == null || summaries.isEmpty())
-            return;
-
-        var semaphore = new Semaphore(25);
-
-        Thread.startVirtualThread(() -> {
-            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
-                for (OmdbMovieSummary summary : summaries) {
-                    executor.submit(() -> {
-                        try {
-                            semaphore.acquire();
-                            var cached = movieRepository.findById(summary.imdbID());
-                            if (cached.isPresent() && cached.get().getPlot() != null) {
-                                return;
-                            }
-                            getMovieDetails(summary.imdbID());
-                        } catch (Exception e) {
-                            log.error("Failed async fetch for {}", summary.imdbID(), e);
-                        } finally {
-                            semaphore.release();
-                        }
-                    });
-                }
-            }
-        });
-    }
-
+    /**
+     * Falls back to the movies already stored locally while OMDb is unavailable.
+     */
     public OmdbSearchResponse searchMovies(String title) {
-        OmdbSearchResponse response = restClient.get()
+        OmdbSearchResponse response = omdb.call(() -> restClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .queryParam("apikey", apiKey)
                         .queryParam("s", title)
                         .build())
                 .retrieve()
-                .body(OmdbSearchResponse.class);
+                .body(OmdbSearchResponse.class), e -> {
+            log.warn("OMDb search unavailable, answering '{}' from local movies: {}", title, e.getMessage());
+            List<OmdbMovieSummary> localResults = movieSearchService.searchMovies(title, 0, 10).movies().stream()
+                    .map(OmdbService::toSummary)
+                    .toList();
+            return new OmdbSearchResponse(localResults, String.valueOf(localResults.size()),
+                    localResults.isEmpty() ? "False" : "True");
+        });
 
         if (response != null && response.response().equals("True") && response.search() != null) {
-            fetchAndSaveFullDetailsAsync(response.search());
+            eventPublisher.publishEvent(new EnrichmentRequestedEvent(imdbIds(response.search()),
+                    EnrichmentScheduler.Priority.USER_VISIBLE));
         }
 
         return response;
@@ -81,15 +74,7 @@ public class OmdbService {
 
     public OmdbSearchResponse searchAllMovies(String title) {
         List<Movie> localMovies = movieSearchService.searchMovies(title, 0, 1000).movies();
-        List<OmdbMovieSummary> localResults = localMovies.stream().map(m -> new OmdbMovieSummary(
-                        m.getTitle(),
-                        m.getYear(),
-                        m.getImdbId(),
-                        m.getType(),
-                        m.getPoster(),
-                        m.getGenre(),
-                        m.getAwards(),
-                        m.getImdbRating() != null ? m.getImdbRating() : null))
+        List<OmdbMovieSummary> localResults = localMovies.stream().map(OmdbService::toSummary)
                 .collect(Collectors.toList());
 
         if (localResults.size() >= 100) {
@@ -108,14 +93,14 @@ public class OmdbService {
             final int currentPage = page;
             OmdbSearchResponse response = null;
             try {
-                response = restClient.get()
+                response = omdb.call(() -> restClient.get()
                         .uri(uriBuilder -> uriBuilder
                                 .queryParam("apikey", apiKey)
                                 .queryParam("s", title)
                                 .queryParam("page", currentPage)
                                 .build())
                         .retrieve()
-                        .body(OmdbSearchResponse.class);
+                        .body(OmdbSearchResponse.class));
             } catch (Exception e) {
                 break;
             }
@@ -133,7 +118,10 @@ public class OmdbService {
             }
 
             allResults.addAll(response.search());
-            fetchAndSaveFullDetailsAsync(response.search());
+            // The first page is what the user sees first; deeper pages can wait
+            eventPublisher.publishEvent(new EnrichmentRequestedEvent(imdbIds(response.search()), page == 1
+                    ? EnrichmentScheduler.Priority.USER_VISIBLE
+                    : EnrichmentScheduler.Priority.SEARCH_RESULT));
 
             if (allResults.size() >= totalResults) {
                 break;
@@ -173,15 +161,18 @@ public class OmdbService {
         );
     }
 
+    /**
+     * @throws vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException while OMDb is unavailable
+     */
     public OmdbMovieDetails getMovieDetails(String imdbId) {
-        OmdbMovieDetails movieDetails = restClient.get()
+        OmdbMovieDetails movieDetails = omdb.call(() -> restClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .queryParam("apikey", apiKey)
                         .queryParam("i", imdbId)
                         .queryParam("plot", "full")
                         .build())
                 .retrieve()
-                .body(OmdbMovieDetails.class);
+                .body(OmdbMovieDetails.class));
 
         if (movieDetails != null) {
             movieSearchService.saveMovie(movieDetails);
@@ -189,4 +180,20 @@ public class OmdbService {
 
         return movieDetails;
     }
+
+    private static List<String> imdbIds(List<OmdbMovieSummary> summaries) {
+        return summaries.stream().map(OmdbMovieSummary::imdbID).toList();
+    }
+
+    private static OmdbMovieSummary toSummary(Movie m) {
+        return new OmdbMovieSummary(
+                m.getTitle(),
+                m.getYear(),
+                m.getImdbId(),
+                m.getType(),
+                m.getPoster(),
+                m.getGenre(),
+                m.getAwards(),
+                m.getImdbRating() != null ? m.getImdbRating() : null);
+    }
 }
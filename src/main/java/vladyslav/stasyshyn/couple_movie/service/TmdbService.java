@@ -9,7 +9,10 @@ import vladyslav.stasyshyn.couple_movie.dto.tmdb.TmdbExternalIds;
 import vladyslav.stasyshyn.couple_movie.dto.tmdb.TmdbTrendingItem;
 import vladyslav.stasyshyn.couple_movie.dto.tmdb.TmdbTrendingResponse;
 import vladyslav.stasyshyn.couple_movie.entity.Movie;
+import vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException;
 import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuard;
+import vladyslav.stasyshyn.couple_movie.resilience.DependencyGuardRegistry;
 
 import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbMovieDetails;
 
@@ -21,36 +24,48 @@ import java.util.List;
 @Slf4j
 public class TmdbService {
 
+    private static final String TMDB_URL = "https://api.themoviedb.org/3";
+
     private final RestClient restClient;
     private final String apiKey;
     private final OmdbService omdbService;
     private final MovieRepository movieRepository;
     private final MovieSearchService movieSearchService;
+    private final DependencyGuard tmdb;
 
     public TmdbService(RestClient.Builder restClientBuilder,
                        @Value("${app.tmdb.api-key:placeholder}") String apiKey,
                        OmdbService omdbService,
                        MovieRepository movieRepository,
-                       MovieSearchService movieSearchService) {
+                       MovieSearchService movieSearchService,
+                       DependencyGuardRegistry dependencyGuardRegistry) {
         this.apiKey = apiKey;
-        this.restClient = restClientBuilder.baseUrl("https://api.themoviedb.org/3").build();
+        this.restClient = restClientBuilder
+                .baseUrl(TMDB_URL)
+                .requestFactory(dependencyGuardRegistry.requestFactory("tmdb", TMDB_URL))
+                .build();
         this.omdbService = omdbService;
         this.movieRepository = movieRepository;
         this.movieSearchService = movieSearchService;
+        this.tmdb = dependencyGuardRegistry.guard("tmdb");
     }
 
-    @Cacheable("trendingMovies")
+    /**
+     * Throws {@link DependencyUnavailableException} when TMDB is unavailable, so only lists built from
+     * a TMDB answer are ever cached; {@link TrendingService} serves the fallback.
+     */
+    @Cacheable(value = "trendingMovies", unless = "#result.isEmpty()")
     public List<Movie> getTrending() {
-        TmdbTrendingResponse response = restClient.get()
+        TmdbTrendingResponse response = tmdb.call(() -> restClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/trending/all/week")
                         .queryParam("api_key", apiKey)
                         .build())
                 .retrieve()
-                .body(TmdbTrendingResponse.class);
+                .body(TmdbTrendingResponse.class));
 
         if (response == null || response.results() == null) {
-            return List.of();
+            throw new DependencyUnavailableException("TMDB returned no trending results");
         }
 
         List<TmdbTrendingItem> sortedItems = new ArrayList<>(response.results());
@@ -66,13 +81,13 @@ public class TmdbService {
                 }
 
                 final String finalPath = targetPath;
-                TmdbExternalIds externalIds = restClient.get()
+                TmdbExternalIds externalIds = tmdb.call(() -> restClient.get()
                         .uri(uriBuilder -> uriBuilder
                                 .path(finalPath)
                                 .queryParam("api_key", apiKey)
                                 .build())
                         .retrieve()
-                        .body(TmdbExternalIds.class);
+                        .body(TmdbExternalIds.class));
 
                 if (externalIds != null && externalIds.imdbId() != null) {
                     String imdbId = externalIds.imdbId();
@@ -0,0 +1,39 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import vladyslav.stasyshyn.couple_movie.entity.Movie;
+import vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException;
+
+import java.util.List;
+
+/**
+ * Trending movies from the cached TMDB list, or the last one TMDB gave while it is unavailable.
+ * The fallback is never cached, so the next request retries TMDB.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingService {
+
+    private final TmdbService tmdbService;
+
+    /**
+     * The last list built from a TMDB answer, served while TMDB is unavailable.
+     */
+    private volatile List<Movie> lastTrending = List.of();
+
+    public List<Movie> getTrending() {
+        try {
+            List<Movie> trending = tmdbService.getTrending();
+            if (!trending.isEmpty()) {
+                lastTrending = List.copyOf(trending);
+            }
+            return trending;
+        } catch (DependencyUnavailableException e) {
+            log.warn("TMDB unavailable, serving the last trending list: {}", e.getMessage());
+            return lastTrending;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import com.pgvector.PGvector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import vladyslav.stasyshyn.couple_movie.dto.VectorBenchmarkResponse;
+import vladyslav.stasyshyn.couple_movie.dto.VectorBenchmarkResponse.EfSearchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recall-vs-latency harness for the HNSW index on our own data.
+ * Random stored embeddings are used as queries; the exact sequential-scan top-k is the ground truth.
+ */
+@Service
+@ConditionalOnProperty(name = "app.ai.enabled", havingValue = "true", matchIfMissing = false)
+@RequiredArgsConstructor
+@Slf4j
+public class VectorIndexBenchmarkService {
+
+    static final int MAX_QUERIES = 200;
+    static final int MAX_K = 100;
+    static final int MAX_EF_SEARCH_VALUES = 8;
+
+    private final VectorSearchService vectorSearchService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public VectorBenchmarkResponse run(int queries, int k, List<Integer> efSearchValues) {
+        if (queries < 1 || queries > MAX_QUERIES) {
+            throw new IllegalArgumentException("queries must be between 1 and " + MAX_QUERIES);
+        }
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K);
+        }
+        if (efSearchValues.isEmpty() || efSearchValues.size() > MAX_EF_SEARCH_VALUES
+                || efSearchValues.stream().anyMatch(ef -> ef == null || ef < 1 || ef > VectorSearchService.MAX_EF_SEARCH)) {
+            throw new IllegalArgumentException("efSearch takes 1 to " + MAX_EF_SEARCH_VALUES
+                    + " values between 1 and " + VectorSearchService.MAX_EF_SEARCH);
+        }
+
+        List<float[]> sample = jdbcTemplate.query(
+                "SELECT embedding::text FROM vector_store ORDER BY random() LIMIT ?",
+                (rs, rowNum) -> new PGvector(rs.getString(1)).toArray(),
+                queries);
+
+        if (sample.isEmpty()) {
+            return new VectorBenchmarkResponse(0, k, 0.0, List.of());
+        }
+
+        List<Set<String>> groundTruth = new ArrayList<>(sample.size());
+        long[] exactLatencies = new long[sample.size()];
+        for (int i = 0; i < sample.size(); i++) {
+            long started = System.nanoTime();
+            groundTruth.add(new HashSet<>(vectorSearchService.findExactImdbIds(sample.get(i), k)));
+            exactLatencies[i] = System.nanoTime() - started;
+        }
+
+        List<EfSearchResult> results = new ArrayList<>();
+        for (int efSearch : efSearchValues) {
+            long[] latencies = new long[sample.size()];
+            double recallSum = 0.0;
+            for (int i = 0; i < sample.size(); i++) {
+                long started = System.nanoTime();
+                List<String> approximate = vectorSearchService.findSimilarImdbIds(
+                        sample.get(i), VectorSearchService.Filter.NONE, k, efSearch);
+                latencies[i] = System.nanoTime() - started;
+
+                Set<String> expected = groundTruth.get(i);
+                if (!expected.isEmpty()) {
+                    long hits = approximate.stream().filter(expected::contains).count();
+                    recallSum += (double) hits / expected.size();
+                }
+            }
+            results.add(new EfSearchResult(efSearch, recallSum / sample.size(), averageMs(latencies), p95Ms(latencies)));
+        }
+
+        log.info("AI: Vector index benchmark over {} queries (k={}): {}", sample.size(), k, results);
+        return new VectorBenchmarkResponse(sample.size(), k, averageMs(exactLatencies), results);
+    }
+
+    private static double averageMs(long[] nanos) {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        return nanos.length > 0 ? total / 1_000_000.0 / nanos.length : 0.0;
+    }
+
+    private static double p95Ms(long[] nanos) {
+        if (nanos.length == 0) return 0.0;
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(sorted.length * 0.95) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,237 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import com.pgvector.PGvector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Nearest-neighbour lookups against the pgvector {@code vector_store} table.
+ * Unlike {@code VectorStore.similaritySearch}, the query vector is passed in, so callers
+ * embed through {@link EmbeddingService} (and its cache) exactly once per distinct text.
+ * Optional {@link Filter}s are applied in SQL on the metadata columns next to the HNSW scan,
+ * and every query runs with the {@code hnsw.ef_search} configured for its {@link QueryProfile}.
+ * With a half-precision or binary index, the ANN pass over-fetches quantized candidates and
+ * re-ranks them by the full-precision cosine distance. Filtered queries use pgvector's iterative
+ * scan where available, otherwise the maximum ef_search, so selective filters still fill topK.
+ */
+@Service
+@ConditionalOnProperty(name = "app.ai.enabled", havingValue = "true", matchIfMissing = false)
+@RequiredArgsConstructor
+public class VectorSearchService {
+
+    private static final Set<String> ITERATIVE_SCAN_MODES = Set.of("off", "strict_order", "relaxed_order");
+    static final int MAX_EF_SEARCH = 1000;
+
+    private final EmbeddingService embeddingService;
+    private final AiVectorizationService aiVectorizationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // HNSW returns at most ef_search rows, so search needs it as high as its 1000-movie pool
+    @Value("${app.ai.vector-index.ef-search.search:1000}")
+    private int searchEfSearch;
+
+    @Value("${app.ai.vector-index.ef-search.chat:40}")
+    private int chatEfSearch;
+
+    @Value("${app.ai.vector-index.ef-search.recommendations:200}")
+    private int recommendationsEfSearch;
+
+    /**
+     * Mode for filtered queries on pgvector 0.8+: keeps scanning the graph until they fill their LIMIT.
+     * On older versions (or with {@code off}) filtered queries raise ef_search to its maximum instead.
+     */
+    @Value("${app.ai.vector-index.iterative-scan:relaxed_order}")
+    private String iterativeScan;
+
+    private volatile Boolean iterativeScanSupported;
+
+    /**
+     * The endpoint a query is issued for; each one has its own recall/latency trade-off.
+     */
+    public enum QueryProfile {
+        SEARCH,
+        CHAT,
+        RECOMMENDATIONS
+    }
+
+    /**
+     * Embeds the text (cached) and returns the IMDb IDs of the {@code topK} closest movies, nearest first.
+     */
+    public List<String> findSimilarImdbIds(String text, QueryProfile profile, int topK) {
+        return findSimilarImdbIds(embeddingService.embedVector(text), Filter.NONE, topK, efSearchFor(profile));
+    }
+
+    /**
+     * Embeds the text (cached) and returns the {@code topK} closest movies that pass the filter.
+     */
+    public List<String> findSimilarImdbIds(String text, Filter filter, QueryProfile profile, int topK) {
+        return findSimilarImdbIds(embeddingService.embedVector(text), filter, topK, efSearchFor(profile));
+    }
+
+    /**
+     * Returns the IMDb IDs of the {@code topK} closest movies that pass the filter, nearest first,
+     * using an explicit {@code hnsw.ef_search}.
+     */
+    public List<String> findSimilarImdbIds(float[] embedding, Filter filter, int topK, int efSearch) {
+        AiVectorizationService.VectorStorage storage = aiVectorizationService.getStorage();
+        // HNSW cannot return more than ef_search rows, so the over-fetch is capped by its maximum
+        int candidates = storage.needsRerank()
+                ? Math.max(topK, Math.min(topK * aiVectorizationService.getRerankFactor(), MAX_EF_SEARCH))
+                : topK;
+
+        // Filters are applied to the rows HNSW returns, so a selective one needs a deeper scan to fill topK
+        boolean iterative = filter.isRestrictive() && useIterativeScan();
+        int effectiveEfSearch = filter.isRestrictive() && !iterative
+                ? MAX_EF_SEARCH
+                : Math.min(MAX_EF_SEARCH, Math.max(Math.max(1, efSearch), candidates));
+        // relaxed_order may return rows slightly out of order, so they are re-sorted by exact distance
+        boolean reorder = storage.needsRerank() || (iterative && "relaxed_order".equals(iterativeScan));
+
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL hnsw.ef_search = " + effectiveEfSearch);
+            if (iterative) {
+                jdbcTemplate.execute("SET LOCAL hnsw.iterative_scan = " + iterativeScan);
+            }
+            return runQuery(embedding, filter, storage, candidates, topK, reorder);
+        });
+    }
+
+    /**
+     * Exact (sequential scan) nearest neighbours, the ground truth for recall measurements.
+     */
+    public List<String> findExactImdbIds(float[] embedding, int topK) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+            return runQuery(embedding, Filter.NONE, AiVectorizationService.VectorStorage.FULL, topK, topK, false);
+        });
+    }
+
+    public int efSearchFor(QueryProfile profile) {
+        return switch (profile) {
+            case SEARCH -> searchEfSearch;
+            case CHAT -> chatEfSearch;
+            case RECOMMENDATIONS -> recommendationsEfSearch;
+        };
+    }
+
+    /**
+     * Whether the configured iterative scan mode can be used; needs pgvector 0.8 or newer, checked once.
+     */
+    private boolean useIterativeScan() {
+        if ("off".equals(iterativeScan) || !ITERATIVE_SCAN_MODES.contains(iterativeScan)) {
+            return false;
+        }
+        Boolean supported = iterativeScanSupported;
+        if (supported == null) {
+            List<String> versions = jdbcTemplate.queryForList(
+                    "SELECT extversion FROM pg_extension WHERE extname = 'vector'", String.class);
+            supported = !versions.isEmpty() && atLeast(versions.get(0), 0, 8);
+            iterativeScanSupported = supported;
+        }
+        return supported;
+    }
+
+    private static boolean atLeast(String version, int major, int minor) {
+        String[] parts = version.split("\\.");
+        try {
+            int actualMajor = Integer.parseInt(parts[0]);
+            int actualMinor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return actualMajor > major || (actualMajor == major && actualMinor >= minor);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private List<String> runQuery(float[] embedding, Filter filter, AiVectorizationService.VectorStorage storage,
+                                  int candidates, int topK, boolean reorder) {
+        StringBuilder sql = new StringBuilder("SELECT metadata->>'imdb_id' AS imdb_id")
+                .append(reorder ? ", embedding" : "")
+                .append(" FROM vector_store WHERE metadata->>'imdb_id' IS NOT NULL");
+        List<Object> params = new ArrayList<>();
+
+        if (filter.hasGenres()) {
+            sql.append(" AND genres && ?");
+            params.add(filter.anyGenre().toArray(String[]::new));
+        }
+        if (filter.animation() != null) {
+            sql.append(" AND is_animation = ?");
+            params.add(filter.animation());
+        }
+        if (filter.minYear() != null) {
+            sql.append(" AND start_year >= ?");
+            params.add(filter.minYear());
+        }
+        if (filter.maxYear() != null) {
+            sql.append(" AND start_year <= ?");
+            params.add(filter.maxYear());
+        }
+        if (filter.type() != null) {
+            sql.append(" AND movie_type = ?");
+            params.add(filter.type());
+        }
+        if (filter.hasExclusions()) {
+            sql.append(" AND NOT (metadata->>'imdb_id' = ANY (?))");
+            params.add(filter.excludeImdbIds().toArray(String[]::new));
+        }
+
+        PGvector queryVector = new PGvector(embedding);
+        sql.append(" ORDER BY ").append(storage.distanceExpression()).append(" LIMIT ?");
+        params.add(queryVector);
+        params.add(candidates);
+
+        if (reorder) {
+            sql.insert(0, "SELECT c.imdb_id FROM (").append(") c ORDER BY c.embedding <=> ? LIMIT ?");
+            params.add(queryVector);
+            params.add(topK);
+        }
+
+        return jdbcTemplate.queryForList(sql.toString(), String.class, params.toArray());
+    }
+
+    /**
+     * Metadata restrictions for a similarity query. Null fields are not filtered on.
+     *
+     * @param anyGenre       candidate must share at least one of these genres
+     * @param animation      candidate animation flag must equal this
+     * @param minYear        inclusive lower bound on the start year
+     * @param maxYear        inclusive upper bound on the start year
+     * @param type           OMDb type ("movie", "series", ...)
+     * @param excludeImdbIds IDs never to return (already known or already recommended)
+     */
+    public record Filter(
+            Collection<String> anyGenre,
+            Boolean animation,
+            Integer minYear,
+            Integer maxYear,
+            String type,
+            Collection<String> excludeImdbIds) {
+
+        public static final Filter NONE = new Filter(null, null, null, null, null, null);
+
+        /**
+         * Whether any predicate is actually applied; empty collections add none.
+         */
+        boolean isRestrictive() {
+            return hasGenres() || animation != null || minYear != null || maxYear != null || type != null
+                    || hasExclusions();
+        }
+
+        boolean hasGenres() {
+            return anyGenre != null && !anyGenre.isEmpty();
+        }
+
+        boolean hasExclusions() {
+            return excludeImdbIds != null && !excludeImdbIds.isEmpty();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -31,7 +32,16 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import vladyslav.stasyshyn.couple_movie.service.OmdbService;
 
@@ -104,6 +114,9 @@ class CoupleMovieApplicationTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void contextLoads() {
         Assertions.assertTrue(postgres.isRunning());
@@ -241,6 +254,57 @@ class CoupleMovieApplicationTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testFavoritesPageWithTiesAndUndatedRows() throws Exception {
+        Cookie token = createAndAuthenticateUser("fav_page@example.com", "password123", "favpage");
+        List<String> imdbIds = List.of("tt1375666", "tt0816692", "tt0133093", "tt0137523");
+        for (String imdbId : imdbIds) {
+            if (movieRepository.findById(imdbId).isEmpty()) {
+                movieRepository.save(Movie.builder().imdbId(imdbId).title(imdbId).build());
+            }
+            mockMvc.perform(post("/api/v1/favorites")
+                            .cookie(token)
+                            .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
+                            .content(Objects.requireNonNull("{\"imdb_id\": \"" + imdbId + "\"}")))
+                    .andExpect(status().isOk());
+        }
+
+        // Two rows share a timestamp and one predates the created_at column
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class,
+                "fav_page@example.com");
+        jdbcTemplate.update("UPDATE user_favorites SET created_at = TIMESTAMP '2024-01-01 12:00:00' "
+                + "WHERE user_id = ? AND imdb_id IN ('tt1375666', 'tt0816692')", userId);
+        jdbcTemplate.update("UPDATE user_favorites SET created_at = NULL "
+                + "WHERE user_id = ? AND imdb_id = 'tt0133093'", userId);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/v1/favorites/page").cookie(token).param("limit", "1");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            var page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> seen.add(item.get("imdbId").asText()));
+            cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null && seen.size() <= imdbIds.size());
+
+        Assertions.assertEquals(imdbIds.size(), seen.size());
+        Assertions.assertEquals(Set.copyOf(imdbIds), new HashSet<>(seen));
+        Assertions.assertEquals("tt0133093", seen.get(0));
+
+        mockMvc.perform(get("/api/v1/favorites/page").cookie(token).param("status", "SOMEDAY"))
+                .andExpect(status().isBadRequest());
+
+        var wildcard = objectMapper.readTree(mockMvc.perform(get("/api/v1/favorites/page")
+                        .cookie(token).param("genre", "%"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        Assertions.assertEquals(0, wildcard.get("items").size());
+    }
+
     @Test
     void testCoupleSharedMoviesFlow() throws Exception {
         Cookie tokenA = createAndAuthenticateUser("couple_test_A@example.com", "passwordA", "coupleA");
@@ -294,6 +358,121 @@ class CoupleMovieApplicationTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testConcurrentCoupleMovieAdds() throws Exception {
+        Cookie tokenA = createAndAuthenticateUser("race_add_A@example.com", "passwordA", "raceAddA");
+        Cookie tokenB = createAndAuthenticateUser("race_add_B@example.com", "passwordB", "raceAddB");
+        linkCouple(tokenA, tokenB, "raceAddB");
+
+        int threads = 16;
+        int addsPerThread = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                Cookie token = t % 2 == 0 ? tokenA : tokenB;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int failures = 0;
+                    for (int i = 0; i < addsPerThread; i++) {
+                        int status = mockMvc.perform(post("/api/v1/couple/movies")
+                                        .cookie(token)
+                                        .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
+                                        .content(Objects.requireNonNull("{\"imdb_id\": \"tt1375666\"}")))
+                                .andReturn().getResponse().getStatus();
+                        if (status != 200) {
+                            failures++;
+                        }
+                    }
+                    return failures;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                Assertions.assertEquals(0, result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        MvcResult stats = mockMvc.perform(get("/api/v1/couple/movies/stats")
+                        .cookie(tokenA))
+                .andExpect(status().isOk())
+                .andReturn();
+        var statsJson = objectMapper.readTree(stats.getResponse().getContentAsString());
+        Assertions.assertEquals(1, statsJson.get("matches").asInt());
+        Assertions.assertEquals(1, statsJson.get("watchlist").asInt());
+    }
+
+    @Test
+    void testConcurrentCoupleMovieRatings() throws Exception {
+        Cookie tokenA = createAndAuthenticateUser("race_rate_A@example.com", "passwordA", "raceRateA");
+        Cookie tokenB = createAndAuthenticateUser("race_rate_B@example.com", "passwordB", "raceRateB");
+        linkCouple(tokenA, tokenB, "raceRateB");
+
+        int rounds = 10;
+        int threadsPerPartner = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threadsPerPartner * 2);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                // A fresh row each round: neither partner has rated yet when the race starts
+                mockMvc.perform(post("/api/v1/couple/movies")
+                                .cookie(tokenA)
+                                .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
+                                .content(Objects.requireNonNull("{\"imdb_id\": \"tt0816692\"}")))
+                        .andExpect(status().isOk());
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int t = 0; t < threadsPerPartner * 2; t++) {
+                    boolean partnerA = t % 2 == 0;
+                    Cookie token = partnerA ? tokenA : tokenB;
+                    String rating = partnerA ? "3.0" : "5.0";
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return mockMvc.perform(post("/api/v1/couple/movies/tt0816692/rate")
+                                        .cookie(token)
+                                        .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
+                                        .content(Objects.requireNonNull("{\"rating\": " + rating + "}")))
+                                .andReturn().getResponse().getStatus();
+                    }));
+                }
+                start.countDown();
+                for (Future<Integer> result : results) {
+                    Assertions.assertEquals(200, result.get(60, TimeUnit.SECONDS));
+                }
+
+                MvcResult list = mockMvc.perform(get("/api/v1/couple/movies")
+                                .cookie(tokenA))
+                        .andExpect(status().isOk())
+                        .andReturn();
+                var movie = objectMapper.readTree(list.getResponse().getContentAsString()).get(0);
+                Assertions.assertEquals(3.0, movie.get("yourRating").asDouble());
+                Assertions.assertEquals(5.0, movie.get("partnerRating").asDouble());
+
+                mockMvc.perform(delete("/api/v1/couple/movies/tt0816692")
+                                .cookie(tokenA))
+                        .andExpect(status().isOk());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void linkCouple(Cookie inviter, Cookie invitee, String inviteeUsername) throws Exception {
+        MvcResult inviteResult = mockMvc.perform(post("/api/v1/couple/invite")
+                        .cookie(inviter)
+                        .param("username", inviteeUsername))
+                .andExpect(status().isOk())
+                .andReturn();
+        long requestId = objectMapper.readTree(inviteResult.getResponse().getContentAsString()).get("id")
+                .asLong();
+        mockMvc.perform(post("/api/v1/couple/accept/" + requestId)
+                        .cookie(invitee))
+                .andExpect(status().isOk());
+    }
+
     private Cookie createAndAuthenticateUser(String email, String password, String username) throws Exception {
         RegisterRequest registerRequest = RegisterRequest.builder()
                 .firstName("Test")
@@ -0,0 +1,56 @@
+package vladyslav.stasyshyn.couple_movie.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoundedTtlCacheTest {
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDroppedAtTheBound() {
+        BoundedTtlCache cache = new BoundedTtlCache("test", 60, 2);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+        cache.put(3L, "c");
+
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+    }
+
+    @Test
+    void zeroTtlCachesNothing() {
+        BoundedTtlCache cache = new BoundedTtlCache("test", 0, 10);
+        cache.put(1L, "a");
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void evictionInsideTransactionWaitsForCommit() {
+        Cache cache = new TransactionAwareCacheDecorator(new BoundedTtlCache("test", 60, 10));
+        cache.put(1L, "a");
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict(1L);
+        assertEquals("a", cache.get(1L).get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(cache.get(1L));
+    }
+}
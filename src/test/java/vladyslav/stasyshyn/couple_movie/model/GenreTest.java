@@ -0,0 +1,69 @@
+package vladyslav.stasyshyn.couple_movie.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenreTest {
+
+    @Test
+    void maskOfParsesOmdbGenreString() {
+        long mask = Genre.maskOf("Action, Sci-Fi,Thriller");
+
+        assertEquals(Genre.ACTION.bit() | Genre.SCI_FI.bit() | Genre.THRILLER.bit(), mask);
+    }
+
+    @Test
+    void maskOfIsCaseInsensitive() {
+        assertEquals(Genre.FILM_NOIR.bit(), Genre.maskOf(" film-noir "));
+        assertEquals(Genre.maskOf("Drama"), Genre.maskOf(List.of("DRAMA")));
+    }
+
+    @Test
+    void unknownLabelsAreIgnored() {
+        assertEquals(Genre.COMEDY.bit(), Genre.maskOf("Comedy, Anime, , N/A"));
+        assertEquals(Genre.COMEDY.bit(), Genre.maskOf(Arrays.asList("Comedy", "Anime", null)));
+        assertEquals(0L, Genre.maskOf("N/A"));
+        assertEquals(0L, Genre.maskOf((String) null));
+        assertNull(Genre.fromLabel("Anime"));
+    }
+
+    @Test
+    void fromMaskReturnsGenresInIdOrder() {
+        long mask = Genre.WESTERN.bit() | Genre.ACTION.bit() | Genre.DRAMA.bit();
+
+        assertEquals(List.of(Genre.ACTION, Genre.DRAMA, Genre.WESTERN), Genre.fromMask(mask));
+        assertEquals(List.of("Action", "Drama", "Western"), Genre.labelsOf(mask));
+    }
+
+    @Test
+    void fromMaskSkipsUnassignedBits() {
+        long mask = Genre.HORROR.bit() | (1L << 63) | (1L << 40);
+
+        assertEquals(List.of(Genre.HORROR), Genre.fromMask(mask));
+        assertTrue(Genre.fromMask(0L).isEmpty());
+    }
+
+    @Test
+    void everyGenreRoundTripsThroughItsLabelAndMask() {
+        for (Genre genre : Genre.values()) {
+            assertEquals(genre, Genre.fromLabel(genre.label()));
+            assertEquals(genre, Genre.fromId(genre.id()));
+            assertEquals(List.of(genre), Genre.fromMask(Genre.maskOf(genre.label())));
+        }
+    }
+
+    @Test
+    void overlapsIsASingleAnd() {
+        long thriller = Genre.maskOf("Crime, Thriller");
+
+        assertTrue(Genre.overlaps(thriller, Genre.THRILLER.bit()));
+        assertFalse(Genre.overlaps(thriller, Genre.ROMANCE.bit()));
+    }
+}
@@ -0,0 +1,152 @@
+package vladyslav.stasyshyn.couple_movie.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import vladyslav.stasyshyn.couple_movie.dto.DependencyStatusResponse;
+import vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGuardTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(100);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static CircuitBreaker breaker(int failureThreshold) {
+        return new CircuitBreaker("test", failureThreshold, OPEN_DURATION, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void callOverTheTimeoutFailsFastAndCountsAsFailure() {
+        DependencyGuard guard = new DependencyGuard("test", breaker(5), 4, 0, 50, executor);
+
+        long started = System.nanoTime();
+        assertThrows(DependencyUnavailableException.class, () -> guard.call(() -> {
+            Thread.sleep(5_000);
+            return "late";
+        }));
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+        DependencyStatusResponse status = guard.status();
+        assertEquals(1, status.timeouts());
+        assertEquals(1, status.failures());
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutCallingOrTouchingTheBreaker() throws Exception {
+        DependencyGuard guard = new DependencyGuard("test", breaker(1), 1, 0, 0, executor);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> holder = executor.submit(() -> guard.call(() -> {
+            entered.countDown();
+            release.await();
+            return "first";
+        }));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger invoked = new AtomicInteger();
+        assertThrows(DependencyUnavailableException.class, () -> guard.call(invoked::incrementAndGet));
+        assertEquals("fallback", guard.call(() -> "second", e -> "fallback"));
+
+        release.countDown();
+        assertEquals("first", holder.get(5, TimeUnit.SECONDS));
+        assertEquals(0, invoked.get());
+        DependencyStatusResponse status = guard.status();
+        assertEquals(2, status.rejectedByBulkhead());
+        assertEquals(1, status.fallbacks());
+        assertEquals(CircuitBreaker.State.CLOSED.name(), status.circuitState());
+        assertEquals(0, status.activeCalls());
+    }
+
+    @Test
+    void breakerOpensAfterConsecutiveFailuresAndRejectsCalls() {
+        DependencyGuard guard = new DependencyGuard("test", breaker(2), 4, 0, 0, executor);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(DependencyUnavailableException.class, () -> guard.call(() -> {
+                throw new IllegalStateException("down");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.breaker().getState());
+
+        AtomicInteger invoked = new AtomicInteger();
+        assertThrows(CallNotPermittedException.class, () -> guard.call(invoked::incrementAndGet));
+        assertEquals(0, invoked.get());
+        assertEquals(1, guard.status().rejectedByCircuit());
+    }
+
+    @Test
+    void halfOpenLetsOneTrialThroughAndItsOutcomeDecides() throws Exception {
+        CircuitBreaker breaker = breaker(1);
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(), "only one trial call at a time");
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void slowCallCountsAsFailure() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, OPEN_DURATION, Duration.ofMillis(10));
+        DependencyGuard guard = new DependencyGuard("test", breaker, 4, 0, 0, executor);
+
+        assertEquals("slow", guard.call(() -> {
+            Thread.sleep(50);
+            return "slow";
+        }));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void clientErrorIsRethrownAndKeepsTheBreakerClosed() {
+        DependencyGuard guard = new DependencyGuard("test", breaker(1), 4, 0, 0, executor);
+
+        assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.breaker().getState());
+        assertEquals(0, guard.status().failures());
+    }
+
+    @Test
+    void forcedOpenBreakerIgnoresReset() {
+        CircuitBreaker breaker = breaker(1);
+        breaker.forceOpen();
+        breaker.reset();
+
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
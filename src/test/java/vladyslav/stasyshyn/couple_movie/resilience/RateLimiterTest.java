@@ -0,0 +1,74 @@
+package vladyslav.stasyshyn.couple_movie.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void fullBucketLetsBurstThroughThenPacesAtTheRate() {
+        RateLimiter limiter = new RateLimiter(10, 3, now::get);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        // Empty: each further caller waits one more refill interval than the one before it
+        assertEquals(100, millis(limiter.reserve()));
+        assertEquals(200, millis(limiter.reserve()));
+    }
+
+    @Test
+    void debtIsPaidBackBeforeNewTokensAccrue() {
+        RateLimiter limiter = new RateLimiter(10, 1, now::get);
+        limiter.reserve();
+        limiter.reserve();
+        limiter.reserve();
+
+        now.addAndGet(200 * MILLI);
+
+        assertEquals(100, millis(limiter.reserve()));
+    }
+
+    @Test
+    void idleRefillIsCappedAtBurst() {
+        RateLimiter limiter = new RateLimiter(10, 2, now::get);
+        limiter.reserve();
+        limiter.reserve();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(100, millis(limiter.reserve()));
+    }
+
+    @Test
+    void acquireWaitsForTheRefill() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(20, 1);
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        limiter.acquire();
+
+        assertTrue(System.nanoTime() - start >= 45 * MILLI);
+    }
+
+    @Test
+    void rateMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1));
+    }
+
+    private static long millis(long nanos) {
+        return Math.round((double) nanos / MILLI);
+    }
+}
@@ -0,0 +1,69 @@
+package vladyslav.stasyshyn.couple_movie.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import vladyslav.stasyshyn.couple_movie.document.MovieDocument;
+import vladyslav.stasyshyn.couple_movie.dto.SearchCursor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalMovieIndexTest {
+
+    private LocalMovieIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LocalMovieIndex();
+        index.addAll(List.of(
+                MovieDocument.builder().imdbID("tt1375666").title("Inception").genre(List.of("Action", "Sci-Fi"))
+                        .imdbVotesInt(2500000L).imdbNum(1375666L).hasWinAward(true).build(),
+                MovieDocument.builder().imdbID("tt0816692").title("Interstellar").genre(List.of("Drama", "Sci-Fi"))
+                        .imdbVotesInt(2100000L).imdbNum(816692L).hasWinAward(true).build(),
+                MovieDocument.builder().imdbID("tt0133093").title("The Matrix").genre(List.of("Action"))
+                        .imdbVotesInt(2100000L).imdbNum(133093L).hasWinAward(false).build()));
+    }
+
+    @Test
+    void titleSearchMatchesWordsAndLastWordPrefix() {
+        assertEquals(List.of("tt1375666", "tt0816692"), index.search("i", MeiliFilter.ALL, 0, 10, false).ids());
+        assertEquals(List.of("tt0133093"), index.search("the matr", MeiliFilter.ALL, 0, 10, false).ids());
+    }
+
+    @Test
+    void filteredSearchPagesAndCountsFacets() {
+        LocalMovieIndex.Result sciFi = index.search("", MeiliFilter.in("genre", List.of("sci-fi")), 0, 1, true);
+
+        assertEquals(2, sciFi.totalHits());
+        assertEquals(List.of("tt1375666"), sciFi.ids());
+        assertEquals(1L, sciFi.facets().get("genre").get("Drama"));
+
+        MeiliFilter awardedAction = MeiliFilter.and(MeiliFilter.eq("genre", "Action"), MeiliFilter.eq("hasWinAward", true));
+        assertEquals(List.of("tt1375666"), index.search("", awardedAction, 0, 10, false).ids());
+    }
+
+    @Test
+    void searchAfterStartsStrictlyAfterTheCursor() {
+        assertEquals(List.of("tt0133093", "tt0816692"),
+                ids(index.searchAfter(MeiliFilter.ALL, new SearchCursor(2500000L, 1375666L), 10)));
+        assertEquals(List.of("tt0816692"),
+                ids(index.searchAfter(MeiliFilter.ALL, new SearchCursor(2100000L, 133093L), 10)));
+        assertEquals(List.of("tt1375666", "tt0133093"), ids(index.searchAfter(MeiliFilter.ALL, null, 2)));
+    }
+
+    @Test
+    void replacedDocumentMovesToItsNewPosition() {
+        index.addAll(List.of(MovieDocument.builder().imdbID("tt0133093").title("The Matrix Reloaded")
+                .genre(List.of("Action")).imdbVotesInt(3000000L).imdbNum(133093L).build()));
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("tt0133093", "tt1375666", "tt0816692"),
+                ids(index.searchAfter(MeiliFilter.ALL, null, 10)));
+        assertEquals(List.of("tt0133093"), index.search("reloaded", MeiliFilter.ALL, 0, 10, false).ids());
+    }
+
+    private static List<String> ids(List<MovieDocument> documents) {
+        return documents.stream().map(MovieDocument::getImdbID).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package vladyslav.stasyshyn.couple_movie.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeiliFilterTest {
+
+    @Test
+    void stringValuesAreQuotedAndEscaped() {
+        assertEquals("title = \"Say \\\"hi\\\"\"", MeiliFilter.eq("title", "Say \"hi\"").render());
+        assertEquals("title = \"back\\\\slash\"", MeiliFilter.eq("title", "back\\slash").render());
+        assertEquals("title = \"\\\\\\\"\"", MeiliFilter.eq("title", "\\\"").render());
+    }
+
+    @Test
+    void numbersAndBooleansAreNotQuoted() {
+        assertEquals("decade = 1990", MeiliFilter.eq("decade", 1990).render());
+        assertEquals("hasWinAward = true", MeiliFilter.eq("hasWinAward", true).render());
+        assertEquals("yearInt 1990 TO 1999", MeiliFilter.between("yearInt", 1990, 1999).render());
+        assertEquals("imdbRating > 8.5", MeiliFilter.greaterThan("imdbRating", 8.5).render());
+    }
+
+    @Test
+    void inDropsDuplicatesAndCollapsesToEquality() {
+        assertEquals("genre IN [\"Drama\", \"Comedy\"]",
+                MeiliFilter.in("genre", List.of("Drama", "Drama", "Comedy")).render());
+        assertEquals(MeiliFilter.eq("genre", "Drama"), MeiliFilter.in("genre", List.of("Drama", "Drama")));
+        assertSame(MeiliFilter.ALL, MeiliFilter.in("genre", List.of()));
+    }
+
+    @Test
+    void orMergesEqualityTestsPerAttributeIntoOneIn() {
+        MeiliFilter filter = MeiliFilter.or(
+                MeiliFilter.eq("genre", "Drama"),
+                MeiliFilter.eq("genre", "Comedy"),
+                MeiliFilter.in("genre", List.of("Drama", "War")));
+
+        assertEquals("genre IN [\"Drama\", \"Comedy\", \"War\"]", filter.render());
+    }
+
+    @Test
+    void orKeepsOtherAttributesAndParenthesizesRanges() {
+        MeiliFilter filter = MeiliFilter.or(
+                MeiliFilter.greaterThan("imdbRating", 8.5),
+                MeiliFilter.eq("genre", "Drama"),
+                MeiliFilter.or(MeiliFilter.eq("decade", 1990)));
+
+        assertEquals("genre = \"Drama\" OR decade = 1990 OR (imdbRating > 8.5)", filter.render());
+        assertSame(MeiliFilter.ALL, MeiliFilter.or(MeiliFilter.eq("genre", "Drama"), MeiliFilter.ALL));
+    }
+
+    @Test
+    void andFlattensAndDropsDuplicates() {
+        MeiliFilter awarded = MeiliFilter.eq("hasWinAward", true);
+        MeiliFilter filter = MeiliFilter.and(
+                MeiliFilter.or(MeiliFilter.eq("genre", "Drama"), MeiliFilter.eq("decade", 1990)),
+                MeiliFilter.and(awarded, MeiliFilter.ALL),
+                awarded);
+
+        assertEquals("(genre = \"Drama\" OR decade = 1990) AND hasWinAward = true", filter.render());
+        assertEquals("", MeiliFilter.and(MeiliFilter.ALL, MeiliFilter.ALL).render());
+    }
+
+    @Test
+    void equalTreesAreEqual() {
+        MeiliFilter first = MeiliFilter.and(MeiliFilter.in("genre", List.of("Drama", "War")), MeiliFilter.eq("decade", 1990));
+        MeiliFilter second = MeiliFilter.and(MeiliFilter.in("genre", List.of("Drama", "War")), MeiliFilter.eq("decade", 1990));
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void matchesFollowsMeilisearchSemantics() {
+        Map<String, Object> movie = Map.of("genre", List.of("Action", "Drama"), "imdbRating", 8.8);
+
+        assertTrue(MeiliFilter.eq("genre", "drama").matches(movie::get));
+        assertTrue(MeiliFilter.in("genre", List.of("War", "ACTION")).matches(movie::get));
+        assertFalse(MeiliFilter.eq("decade", 1990).matches(movie::get));
+        assertTrue(MeiliFilter.greaterThan("imdbRating", 8.5).matches(movie::get));
+        assertFalse(MeiliFilter.atLeast("genre", 1).matches(movie::get));
+        assertTrue(MeiliFilter.ALL.matches(movie::get));
+    }
+}
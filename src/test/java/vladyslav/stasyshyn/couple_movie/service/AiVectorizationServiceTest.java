@@ -0,0 +1,77 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AiVectorizationServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AiVectorizationService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = spy(new AiVectorizationService(mock(VectorStore.class), mock(MovieRepository.class), jdbcTemplate));
+        doReturn(true).when(service).rebuildVectorIndexAsync();
+    }
+
+    @Test
+    void halfIndexIsRebuiltAfterSwitchingBackToFull() {
+        ReflectionTestUtils.setField(service, "storage", AiVectorizationService.VectorStorage.FULL);
+        existingIndexUses("halfvec_cosine_ops");
+
+        service.ensureVectorIndexStorage();
+
+        verify(service).rebuildVectorIndexAsync();
+    }
+
+    @Test
+    void fullIndexIsRebuiltAfterSwitchingToHalf() {
+        ReflectionTestUtils.setField(service, "storage", AiVectorizationService.VectorStorage.HALF);
+        existingIndexUses("vector_cosine_ops");
+
+        service.ensureVectorIndexStorage();
+
+        verify(service).rebuildVectorIndexAsync();
+    }
+
+    @Test
+    void matchingIndexIsKept() {
+        ReflectionTestUtils.setField(service, "storage", AiVectorizationService.VectorStorage.FULL);
+        existingIndexUses("vector_cosine_ops");
+
+        service.ensureVectorIndexStorage();
+
+        verify(service, never()).rebuildVectorIndexAsync();
+    }
+
+    @Test
+    void missingIndexIsLeftToTheBuild() {
+        ReflectionTestUtils.setField(service, "storage", AiVectorizationService.VectorStorage.HALF);
+        existingIndexUses();
+
+        service.ensureVectorIndexStorage();
+
+        verify(service, never()).rebuildVectorIndexAsync();
+    }
+
+    private void existingIndexUses(String... operatorClasses) {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(AiVectorizationService.VECTOR_INDEX_NAME)))
+                .thenReturn(List.of(operatorClasses));
+    }
+}
@@ -0,0 +1,82 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.transformers.TransformersEmbeddingModel;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmbeddingServiceTest {
+
+    private TransformersEmbeddingModel delegate;
+    private EmbeddingService service;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(TransformersEmbeddingModel.class);
+        when(delegate.embed(anyList())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            if (texts.contains("fatal")) {
+                throw new LinkageError("native inference crashed");
+            }
+            return Collections.nCopies(texts.size(), List.of(1.0, 2.0));
+        });
+        // One worker and no cache, so every call goes through the queue to the same worker
+        service = new EmbeddingService(delegate, 1, 8, "test-model", 0, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void workerSurvivesAnErrorAndFailsOnlyItsBatch() {
+        service.start();
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> service.embedVector("fatal"));
+        assertInstanceOf(LinkageError.class, failure.getCause());
+        assertArrayEquals(new float[]{1f, 2f}, service.embedVector("after the crash"));
+    }
+
+    @Test
+    void callerStopsWaitingAfterTheTimeout() {
+        // Not started: no worker ever takes the request
+        long started = System.nanoTime();
+
+        assertThrows(IllegalStateException.class, () -> service.embedVector("never embedded"));
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, service.getStats().queueDepth());
+    }
+
+    @Test
+    void stopFailsQueuedRequests() throws InterruptedException {
+        service.stop();
+        // A timeout well past the test, so only stop() can end the wait
+        service = new EmbeddingService(delegate, 1, 8, "test-model", 0, 60_000);
+        CompletableFuture<float[]> caller = CompletableFuture.supplyAsync(() -> service.embedVector("queued"));
+        while (service.getStats().queueDepth() == 0) {
+            Thread.sleep(5);
+        }
+
+        service.stop();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> caller.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+}
@@ -0,0 +1,150 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import vladyslav.stasyshyn.couple_movie.dto.omdb.OmdbMovieDetails;
+import vladyslav.stasyshyn.couple_movie.exception.DependencyUnavailableException;
+import vladyslav.stasyshyn.couple_movie.model.EnrichmentState;
+import vladyslav.stasyshyn.couple_movie.repository.MovieRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EnrichmentSchedulerTest {
+
+    private static final long LEASE_MS = 60_000;
+
+    private OmdbService omdbService;
+    private MovieRepository movieRepository;
+    private EnrichmentScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        omdbService = mock(OmdbService.class);
+        movieRepository = mock(MovieRepository.class);
+        when(movieRepository.claimForEnrichment(anyString(), any(LocalDateTime.class))).thenReturn(1);
+        when(movieRepository.updateEnrichmentState(anyString(), any(EnrichmentState.class))).thenReturn(1);
+        when(omdbService.getMovieDetails(anyString())).thenAnswer(invocation -> details(invocation.getArgument(0)));
+
+        // One worker, so the fetch order is the queue order
+        scheduler = new EnrichmentScheduler(omdbService, movieRepository, 1, 1_000, 1_000, 100);
+        ReflectionTestUtils.setField(scheduler, "retryDelayMs", 50L);
+        ReflectionTestUtils.setField(scheduler, "claimLeaseMs", LEASE_MS);
+        ReflectionTestUtils.setField(scheduler, "backfillBatchSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void sameMovieIsQueuedOnceAcrossPrioritiesAndTakesTheHighest() {
+        List<String> fetched = new CopyOnWriteArrayList<>();
+        when(omdbService.getMovieDetails(anyString())).thenAnswer(invocation -> {
+            fetched.add(invocation.getArgument(0));
+            return details(invocation.getArgument(0));
+        });
+
+        scheduler.enqueue(List.of("tt1"), EnrichmentScheduler.Priority.BACKFILL);
+        scheduler.enqueue(List.of("tt2"), EnrichmentScheduler.Priority.SEARCH_RESULT);
+        scheduler.enqueue(List.of("tt1"), EnrichmentScheduler.Priority.USER_VISIBLE);
+        scheduler.enqueue(List.of("tt1"), EnrichmentScheduler.Priority.SEARCH_RESULT);
+        assertEquals(2, scheduler.queuedCount());
+
+        scheduler.start();
+
+        verify(movieRepository, timeout(2_000)).updateEnrichmentState("tt2", EnrichmentState.ENRICHED);
+        verify(omdbService, after(200).times(1)).getMovieDetails("tt1");
+        assertEquals(List.of("tt1", "tt2"), fetched);
+        assertEquals(0, scheduler.queuedCount());
+    }
+
+    @Test
+    void movieClaimedElsewhereIsNotFetched() {
+        when(movieRepository.claimForEnrichment(eq("tt1"), any(LocalDateTime.class))).thenReturn(0);
+        when(movieRepository.existsById("tt1")).thenReturn(true);
+        scheduler.start();
+
+        scheduler.enqueue(List.of("tt1"), EnrichmentScheduler.Priority.USER_VISIBLE);
+
+        verify(movieRepository, timeout(2_000)).existsById("tt1");
+        verify(omdbService, after(200).never()).getMovieDetails(anyString());
+        verify(movieRepository, never()).updateEnrichmentState(anyString(), any(EnrichmentState.class));
+    }
+
+    @Test
+    void unavailableOmdbHandsTheClaimBackAndRetries() {
+        when(omdbService.getMovieDetails("tt1"))
+                .thenThrow(new DependencyUnavailableException("OMDb circuit is open"))
+                .thenReturn(details("tt1"));
+        scheduler.start();
+
+        scheduler.enqueue(List.of("tt1"), EnrichmentScheduler.Priority.USER_VISIBLE);
+
+        verify(omdbService, timeout(2_000).times(2)).getMovieDetails("tt1");
+        InOrder order = inOrder(movieRepository);
+        order.verify(movieRepository).updateEnrichmentState("tt1", EnrichmentState.PENDING);
+        order.verify(movieRepository, timeout(2_000)).updateEnrichmentState("tt1", EnrichmentState.ENRICHED);
+    }
+
+    @Test
+    void postponedMovieDoesNotHoldTheWorker() {
+        ReflectionTestUtils.setField(scheduler, "retryDelayMs", 60_000L);
+        when(omdbService.getMovieDetails("tt1")).thenThrow(new DependencyUnavailableException("OMDb circuit is open"));
+        scheduler.start();
+
+        scheduler.enqueue(List.of("tt1"), EnrichmentScheduler.Priority.USER_VISIBLE);
+        scheduler.enqueue(List.of("tt2"), EnrichmentScheduler.Priority.BACKFILL);
+
+        verify(movieRepository, timeout(1_000)).updateEnrichmentState("tt2", EnrichmentState.ENRICHED);
+        verify(omdbService, times(1)).getMovieDetails("tt1");
+    }
+
+    @Test
+    void onlyExpiredClaimsAreReleased() {
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(LEASE_MS));
+        scheduler.start();
+        scheduler.enqueuePendingBackfill();
+        LocalDateTime after = LocalDateTime.now().minus(Duration.ofMillis(LEASE_MS));
+
+        ArgumentCaptor<LocalDateTime> claimedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(movieRepository, times(2)).releaseExpiredEnrichmentClaims(claimedBefore.capture());
+        for (LocalDateTime cutoff : claimedBefore.getAllValues()) {
+            assertTrue(!cutoff.isBefore(before) && !cutoff.isAfter(after), "cutoff " + cutoff + " is not now - lease");
+        }
+    }
+
+    @Test
+    void enrichmentRequestsArriveAsEvents() {
+        scheduler.onEnrichmentRequested(new EnrichmentRequestedEvent(
+                List.of("tt1", "tt2", "tt1"), EnrichmentScheduler.Priority.SEARCH_RESULT));
+
+        assertEquals(2, scheduler.queuedCount());
+    }
+
+    private static OmdbMovieDetails details(String imdbId) {
+        return new OmdbMovieDetails("Title", "2020", null, null, null, null, null, null, null, null, null, null,
+                null, null, imdbId, "movie");
+    }
+}
@@ -0,0 +1,87 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import org.junit.jupiter.api.Test;
+import vladyslav.stasyshyn.couple_movie.dto.CursorPageResponse;
+import vladyslav.stasyshyn.couple_movie.dto.KeysetCursor;
+import vladyslav.stasyshyn.couple_movie.repository.projection.KeysetRow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetPagingTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private record Row(Long getId, LocalDateTime getCreatedAt) implements KeysetRow {
+    }
+
+    @Test
+    void exactlyOnePageHasNoCursor() {
+        List<Row> rows = List.of(new Row(3L, NOON), new Row(2L, NOON));
+
+        CursorPageResponse<Long> page = KeysetPaging.page(rows, 2, Row::getId);
+
+        assertEquals(List.of(3L, 2L), page.items());
+        assertFalse(page.hasMore());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void extraRowIsDroppedAndLastKeptRowBecomesCursor() {
+        // Tied timestamps: the cursor has to carry the id to split them
+        List<Row> rows = List.of(new Row(5L, NOON), new Row(4L, NOON), new Row(3L, NOON));
+
+        CursorPageResponse<Long> page = KeysetPaging.page(rows, 2, Row::getId);
+
+        assertEquals(List.of(5L, 4L), page.items());
+        assertTrue(page.hasMore());
+        assertEquals(new KeysetCursor(NOON, 4L), KeysetCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void undatedRowRoundTripsThroughCursor() {
+        List<Row> rows = List.of(new Row(9L, null), new Row(8L, NOON));
+
+        CursorPageResponse<Long> page = KeysetPaging.page(rows, 1, Row::getId);
+        KeysetCursor cursor = KeysetCursor.decode(page.nextCursor());
+
+        assertTrue(cursor.isUndated());
+        assertEquals(9L, cursor.id());
+        assertTrue(KeysetCursor.decode(null).isUndated());
+        assertEquals(Long.MAX_VALUE, KeysetCursor.decode("").id());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        assertEquals(KeysetPaging.DEFAULT_PAGE_SIZE, KeysetPaging.pageSize(null));
+        assertEquals(1, KeysetPaging.pageSize(0));
+        assertEquals(KeysetPaging.MAX_PAGE_SIZE, KeysetPaging.pageSize(10_000));
+    }
+
+    @Test
+    void watchStatusIsValidated() {
+        assertNull(KeysetPaging.watchStatus(" "));
+        assertEquals("WATCHED", KeysetPaging.watchStatus("watched"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetPaging.watchStatus("SOMEDAY"));
+    }
+
+    @Test
+    void genreWildcardsAreEscaped() {
+        assertNull(KeysetPaging.genre(null));
+        assertEquals("Sci-Fi", KeysetPaging.genre(" Sci-Fi "));
+        assertEquals("100\\%", KeysetPaging.genre("100%"));
+        assertEquals("a\\_b", KeysetPaging.genre("a_b"));
+        assertEquals("a\\\\b", KeysetPaging.genre("a\\b"));
+    }
+}
@@ -0,0 +1,124 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import vladyslav.stasyshyn.couple_movie.entity.MailOutbox;
+import vladyslav.stasyshyn.couple_movie.model.MailStatus;
+import vladyslav.stasyshyn.couple_movie.repository.MailOutboxRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailDispatcherTest {
+
+    private MailOutboxRepository repository;
+    private JavaMailSender mailSender;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(MailOutboxRepository.class);
+        mailSender = mock(JavaMailSender.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(repository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        dispatcher = new MailDispatcher(repository, mailSender, transactionTemplate, 2);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMs", 1_000L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMs", 3_000L);
+        ReflectionTestUtils.setField(dispatcher, "leaseMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void claimsOnlyAsManyMessagesAsThereAreFreeSlotsAndLeasesThem() {
+        MailOutbox mail = mail(1L, 0);
+        when(repository.lockDue(any(), eq(2))).thenReturn(List.of(mail));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchDue();
+
+        verify(repository).lockDue(any(), eq(2));
+        assertEquals(MailStatus.SENDING, mail.getStatus());
+        assertEquals(1, mail.getAttempts());
+        assertTrue(mail.getNextAttemptAt().isAfter(before.plusSeconds(59)), "claimed message is leased");
+    }
+
+    @Test
+    void marksDeliveredMessagesSent() {
+        when(repository.lockDue(any(), anyInt())).thenReturn(List.of(mail(1L, 0)));
+
+        dispatcher.dispatchDue();
+
+        ArgumentCaptor<SimpleMailMessage> message = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailSender, timeout(2_000)).send(message.capture());
+        assertEquals("someone@example.com", message.getValue().getTo()[0]);
+        verify(repository, timeout(2_000)).updateDelivery(eq(1L), eq(MailStatus.SENT), any(), isNull(), any());
+    }
+
+    @Test
+    void reschedulesFailedSendWithExponentialBackoff() {
+        when(repository.lockDue(any(), anyInt())).thenReturn(List.of(mail(1L, 1)));
+        doThrow(new MailSendException("smtp down")).when(mailSender).send(any(SimpleMailMessage.class));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchDue();
+
+        // Second attempt: initial backoff doubled once
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, timeout(2_000)).updateDelivery(eq(1L), eq(MailStatus.PENDING), nextAttempt.capture(),
+                eq("smtp down"), isNull());
+        assertTrue(!nextAttempt.getValue().isBefore(before.plusSeconds(2)), "backoff of the second attempt is 2 s");
+        assertTrue(nextAttempt.getValue().isBefore(before.plusSeconds(3)), "backoff is capped");
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        when(repository.lockDue(any(), anyInt())).thenReturn(List.of(mail(1L, 2)));
+        doThrow(new MailSendException("smtp down")).when(mailSender).send(any(SimpleMailMessage.class));
+
+        dispatcher.dispatchDue();
+
+        verify(repository, timeout(2_000)).updateDelivery(eq(1L), eq(MailStatus.FAILED), any(), eq("smtp down"), isNull());
+        verify(repository, never()).updateDelivery(eq(1L), eq(MailStatus.PENDING), any(), any(), any());
+    }
+
+    private static MailOutbox mail(Long id, int attempts) {
+        return MailOutbox.builder()
+                .id(id)
+                .recipient("someone@example.com")
+                .subject("Subject")
+                .body("Body")
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
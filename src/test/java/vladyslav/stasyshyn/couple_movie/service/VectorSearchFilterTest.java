@@ -0,0 +1,27 @@
+package vladyslav.stasyshyn.couple_movie.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorSearchFilterTest {
+
+    @Test
+    void emptyCollectionsAreNotRestrictive() {
+        assertFalse(VectorSearchService.Filter.NONE.isRestrictive());
+        assertFalse(new VectorSearchService.Filter(List.of(), null, null, null, null, List.of()).isRestrictive());
+    }
+
+    @Test
+    void everyPredicateIsRestrictive() {
+        assertTrue(new VectorSearchService.Filter(List.of("Drama"), null, null, null, null, null).isRestrictive());
+        assertTrue(new VectorSearchService.Filter(null, false, null, null, null, null).isRestrictive());
+        assertTrue(new VectorSearchService.Filter(null, null, 1990, null, null, null).isRestrictive());
+        assertTrue(new VectorSearchService.Filter(null, null, null, 2000, null, null).isRestrictive());
+        assertTrue(new VectorSearchService.Filter(null, null, null, null, "movie", null).isRestrictive());
+        assertTrue(new VectorSearchService.Filter(null, null, null, null, null, List.of("tt0111161")).isRestrictive());
+    }
+}